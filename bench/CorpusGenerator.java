@@ -0,0 +1,500 @@
+package ex5.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A generator of synthetic S-Java programs, for scaling tests of the compiler.
+ * a program declares its globals, then its methods, where every method declares locals, assigns them,
+ * calls other methods and nests if and while blocks. the types of the globals and the signatures of the
+ * methods are computed from the seed and their index, so nothing is kept for them and a program is
+ * written to the disk as it is generated, whatever its size.
+ * the same seed and options always generate the same program. with --invalid, a method gets one error
+ * of a random kind (a wrong value, an undeclared variable, a missing semicolon, a wrong call, an
+ * assignment to a final variable, an uninitialized variable or a missing return) at that rate.
+ * usage: CorpusGenerator [--option value]... output
+ * with --files n, output is a directory of n programs, each with its own seed.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class CorpusGenerator {
+    private static final String USAGE = "usage: CorpusGenerator [--seed n] [--globals n] [--methods n] " +
+            "[--statements n] [--depth n] [--fan-out n] [--params n] " +
+            "[--literals int=w,double=w,boolean=w,char=w,String=w] [--invalid rate] [--files n] output";
+    private static final int USAGE_ERROR = 2;
+    private static final String OPTION_PREFIX = "--";
+    private static final String[] TYPE_NAMES = {"int", "double", "boolean", "char", "String"};
+    private static final int INT = 0;
+    private static final int DOUBLE = 1;
+    private static final int BOOLEAN = 2;
+    private static final int CHAR = 3;
+    private static final int STRING = 4;
+    private static final int[] DEFAULT_LITERAL_WEIGHTS = {4, 2, 2, 1, 2};
+    private static final String INDENT = "    ";
+    private static final String FILE_NAME_FORMAT = "program-%06d.sjava";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final long GLOBAL_SALT = 1;
+    private static final long SIGNATURE_SALT = 2;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int FINAL_ODDS = 8;
+    private static final int UNINITIALIZED_ODDS = 6;
+    private static final int BLOCK_ODDS = 5;
+    private static final int RETURN_ODDS = 12;
+    private static final int COMMENT_ODDS = 20;
+    private static final int GLOBAL_ATTEMPTS = 3;
+    private static final int MAX_CONDITION_PARTS = 3;
+    private static final int MAX_INT_LITERAL = 1000;
+    private static final int ERROR_KINDS = 7;
+    private static final int MISSING_RETURN = ERROR_KINDS - 1;
+
+    private long seed = 1;
+    private int globals = 100;
+    private int methods = 100;
+    private int statements = 20;
+    private int depth = 3;
+    private int fanOut = 2;
+    private int params = 3;
+    private int[] literalWeights = DEFAULT_LITERAL_WEIGHTS;
+    private double invalidRate = 0;
+
+    private Writer out;
+    private SplittableRandom random;
+    private long lines;
+    private final List<List<Local>> scopes = new ArrayList<>();
+    private int nextLocal;
+    private int statementIndex;
+    private int statementsLeft;
+    private int callsLeft;
+    private int errorAt;
+    private int errorKind;
+
+    /*
+     * a parameter or local variable of the method that is being generated.
+     */
+    private static final class Local {
+        private final String name;
+        private final int type;
+        private final boolean isFinal;
+        private boolean isInitialized;
+
+        private Local(String name, int type, boolean isFinal, boolean isInitialized) {
+            this.name = name;
+            this.type = type;
+            this.isFinal = isFinal;
+            this.isInitialized = isInitialized;
+        }
+    }
+
+    /**
+     * Generate a program, or a directory of programs.
+     * a wrong option or a missing output prints the usage and exits with a status of 2.
+     *
+     * @param args the options, then the output file, or directory with --files.
+     * @throws IOException if the output cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        CorpusGenerator generator = new CorpusGenerator();
+        int files = 0;
+        int index = 0;
+        try {
+            for (; index + 1 < args.length && args[index].startsWith(OPTION_PREFIX); index += 2) {
+                if (args[index].equals("--files")) {
+                    files = Integer.parseInt(args[index + 1]);
+                } else {
+                    generator.setOption(args[index], args[index + 1]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(USAGE_ERROR);
+        }
+        // an option without a value is left last, it is not the output
+        if (index != args.length - 1 || args[index].startsWith(OPTION_PREFIX)) {
+            System.err.println(USAGE);
+            System.exit(USAGE_ERROR);
+        }
+        Path output = Path.of(args[index]);
+        long bytes = 0;
+        if (files == 0) {
+            generator.write(output, generator.seed);
+            bytes = Files.size(output);
+        } else {
+            Files.createDirectories(output);
+            long firstSeed = generator.seed;
+            for (int i = 0; i < files; i++) {
+                Path file = output.resolve(String.format(FILE_NAME_FORMAT, i));
+                generator.write(file, firstSeed + i);
+                bytes += Files.size(file);
+            }
+        }
+        System.out.printf("%d file(s), %d lines, %d bytes%n", Math.max(files, 1), generator.lines, bytes);
+    }
+
+    private void setOption(String option, String value) {
+        switch (option) {
+            case "--seed" -> seed = Long.parseLong(value);
+            case "--globals" -> globals = nonNegative(option, value);
+            case "--methods" -> methods = nonNegative(option, value);
+            case "--statements" -> statements = nonNegative(option, value);
+            case "--depth" -> depth = nonNegative(option, value);
+            case "--fan-out" -> fanOut = nonNegative(option, value);
+            case "--params" -> params = nonNegative(option, value);
+            case "--literals" -> literalWeights = parseWeights(value);
+            case "--invalid" -> {
+                invalidRate = Double.parseDouble(value);
+                if (invalidRate < 0 || invalidRate > 1) {
+                    throw new IllegalArgumentException("--invalid must be between 0 and 1");
+                }
+            }
+            default -> throw new IllegalArgumentException("unknown option " + option);
+        }
+    }
+
+    private static int nonNegative(String option, String value) {
+        int number = Integer.parseInt(value);
+        if (number < 0) {
+            throw new IllegalArgumentException(option + " must not be negative");
+        }
+        return number;
+    }
+
+    private static int[] parseWeights(String value) {
+        int[] weights = new int[TYPE_NAMES.length];
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            int type = List.of(TYPE_NAMES).indexOf(parts[0].trim());
+            if (parts.length != 2 || type < 0) {
+                throw new IllegalArgumentException("invalid literal weight " + entry);
+            }
+            weights[type] = nonNegative(parts[0], parts[1].trim());
+        }
+        if (weights[INT] + weights[DOUBLE] + weights[BOOLEAN] + weights[CHAR] + weights[STRING] == 0) {
+            throw new IllegalArgumentException("at least one literal weight must be positive");
+        }
+        return weights;
+    }
+
+    /**
+     * Write one program to a file.
+     *
+     * @param file        the file to write.
+     * @param programSeed the seed of the program.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file, long programSeed) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file),
+                StandardCharsets.US_ASCII), OUTPUT_BUFFER_SIZE)) {
+            generate(writer, programSeed);
+        }
+    }
+
+    /**
+     * Write one program.
+     *
+     * @param writer      the writer to write the program to.
+     * @param programSeed the seed of the program.
+     * @throws IOException if the program cannot be written.
+     */
+    public void generate(Writer writer, long programSeed) throws IOException {
+        long savedSeed = seed;
+        seed = programSeed;
+        out = writer;
+        random = new SplittableRandom(programSeed);
+        try {
+            writeLine(0, "// generated by CorpusGenerator, seed " + programSeed);
+            for (int i = 0; i < globals; i++) {
+                writeGlobal(i);
+            }
+            for (int i = 0; i < methods; i++) {
+                writeLine(0, "");
+                writeMethod(i);
+            }
+        } finally {
+            seed = savedSeed;
+        }
+    }
+
+    private void writeGlobal(int index) throws IOException {
+        int type = globalType(index);
+        writeLine(0, (isGlobalFinal(index) ? "final " : "") + TYPE_NAMES[type] + " g" + index + " = " +
+                literal(type) + ";");
+    }
+
+    private void writeMethod(int index) throws IOException {
+        int[] signature = signature(index);
+        List<Local> parameters = new ArrayList<>();
+        StringBuilder declaration = new StringBuilder("void m").append(index).append("(");
+        for (int i = 0; i < signature.length; i++) {
+            boolean isFinal = random.nextInt(FINAL_ODDS) == 0;
+            Local parameter = new Local("p" + i, signature[i], isFinal, true);
+            parameters.add(parameter);
+            declaration.append(i > 0 ? ", " : "").append(isFinal ? "final " : "")
+                    .append(TYPE_NAMES[parameter.type]).append(" ").append(parameter.name);
+        }
+        writeLine(0, declaration.append(") {").toString());
+
+        scopes.clear();
+        scopes.add(parameters);
+        nextLocal = 0;
+        statementIndex = 0;
+        statementsLeft = statements;
+        callsLeft = methods == 0 ? 0 : fanOut;
+        errorAt = -1;
+        errorKind = -1;
+        if (random.nextDouble() < invalidRate) {
+            errorKind = statements == 0 ? MISSING_RETURN : random.nextInt(ERROR_KINDS);
+            errorAt = errorKind == MISSING_RETURN ? -1 : random.nextInt(statements);
+        }
+        writeBlock(1, statements);
+        if (errorKind != MISSING_RETURN) {
+            writeLine(1, "return;");
+        }
+        writeLine(0, "}");
+    }
+
+    /*
+     * write count statements, where a block counts its own line and the statements inside it.
+     */
+    private void writeBlock(int level, int count) throws IOException {
+        scopes.add(new ArrayList<>());
+        int written = 0;
+        while (written < count) {
+            int remaining = count - written;
+            if (random.nextInt(COMMENT_ODDS) == 0) {
+                writeLine(0, "// statement " + statementIndex); // a comment must start the line
+            }
+            if (statementIndex == errorAt) {
+                writeError(level);
+            } else if (callsLeft > 0 && random.nextInt(statementsLeft) < callsLeft) {
+                writeCall(level, 0);
+                callsLeft--;
+            } else if (level <= depth && remaining > 1 && random.nextInt(BLOCK_ODDS) == 0) {
+                int size = 1 + random.nextInt(remaining - 1);
+                writeLine(level, (random.nextBoolean() ? "if (" : "while (") + condition() + ") {");
+                statementIndex++;
+                statementsLeft--;
+                writeBlock(level + 1, size);
+                writeLine(level, "}");
+                written += 1 + size;
+                continue;
+            } else if (level > 1 && random.nextInt(RETURN_ODDS) == 0) {
+                writeLine(level, "return;");
+            } else if (random.nextBoolean() || !writeAssignment(level)) {
+                writeDeclaration(level);
+            }
+            statementIndex++;
+            statementsLeft--;
+            written++;
+        }
+        scopes.remove(scopes.size() - 1);
+    }
+
+    private void writeDeclaration(int level) throws IOException {
+        int type = randomType();
+        boolean isFinal = random.nextInt(FINAL_ODDS) == 0;
+        StringBuilder line = new StringBuilder(isFinal ? "final " : "").append(TYPE_NAMES[type]).append(" ");
+        int count = 1 + (random.nextInt(FINAL_ODDS) == 0 ? 1 : 0);
+        List<Local> declared = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            boolean isInitialized = isFinal || random.nextInt(UNINITIALIZED_ODDS) != 0;
+            Local local = new Local("v" + nextLocal++, type, isFinal, isInitialized);
+            line.append(i > 0 ? ", " : "").append(local.name);
+            if (isInitialized) {
+                line.append(" = ").append(value(type));
+            }
+            declared.add(local);
+        }
+        // the names of the locals are unique in the method, so they never shadow each other
+        scopes.get(scopes.size() - 1).addAll(declared);
+        writeLine(level, line.append(";").toString());
+    }
+
+    private boolean writeAssignment(int level) throws IOException {
+        List<Local> targets = new ArrayList<>();
+        for (List<Local> scope : scopes) {
+            for (Local local : scope) {
+                if (!local.isFinal) {
+                    targets.add(local);
+                }
+            }
+        }
+        if (!targets.isEmpty()) {
+            Local target = targets.get(random.nextInt(targets.size()));
+            writeLine(level, target.name + " = " + value(target.type) + ";");
+            target.isInitialized = true;
+            return true;
+        }
+        for (int attempt = 0; attempt < GLOBAL_ATTEMPTS && globals > 0; attempt++) {
+            int global = random.nextInt(globals);
+            if (!isGlobalFinal(global)) {
+                writeLine(level, "g" + global + " = " + value(globalType(global)) + ";");
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeCall(int level, int extraArguments) throws IOException {
+        int method = random.nextInt(methods);
+        int[] signature = signature(method);
+        StringBuilder line = new StringBuilder("m").append(method).append("(");
+        for (int i = 0; i < signature.length + extraArguments; i++) {
+            line.append(i > 0 ? ", " : "").append(value(i < signature.length ? signature[i] : randomType()));
+        }
+        writeLine(level, line.append(");").toString());
+    }
+
+    private void writeError(int level) throws IOException {
+        String name = "v" + nextLocal++;
+        switch (errorKind) {
+            case 0 -> writeLine(level, "int " + name + " = \"text\";");
+            case 1 -> writeLine(level, "undeclared" + name + " = 1;");
+            case 2 -> writeLine(level, "int " + name + " = 1");
+            case 3 -> {
+                if (methods > 0) {
+                    writeCall(level, 1);
+                } else {
+                    writeLine(level, "missing" + name + "();");
+                }
+            }
+            case 4 -> {
+                writeLine(level, "final int " + name + " = 1;");
+                writeLine(level, name + " = 2;");
+            }
+            default -> {
+                writeLine(level, "int " + name + ";");
+                writeLine(level, "int " + name + "u = " + name + ";");
+            }
+        }
+    }
+
+    private String condition() {
+        int parts = 1 + random.nextInt(MAX_CONDITION_PARTS);
+        StringBuilder condition = new StringBuilder();
+        for (int i = 0; i < parts; i++) {
+            if (i > 0) {
+                condition.append(random.nextBoolean() ? " || " : " && ");
+            }
+            condition.append(value(BOOLEAN));
+        }
+        return condition.toString();
+    }
+
+    /*
+     * an initialized variable that the type accepts, or a literal of the type.
+     */
+    private String value(int type) {
+        if (random.nextBoolean()) {
+            List<Local> candidates = new ArrayList<>();
+            for (List<Local> scope : scopes) {
+                for (Local local : scope) {
+                    if (local.isInitialized && accepts(type, local.type)) {
+                        candidates.add(local);
+                    }
+                }
+            }
+            if (!candidates.isEmpty()) {
+                return candidates.get(random.nextInt(candidates.size())).name;
+            }
+            for (int attempt = 0; attempt < GLOBAL_ATTEMPTS && globals > 0; attempt++) {
+                int global = random.nextInt(globals);
+                if (accepts(type, globalType(global))) {
+                    return "g" + global;
+                }
+            }
+        }
+        return literal(type);
+    }
+
+    private static boolean accepts(int type, int valueType) {
+        return type == valueType || (type == DOUBLE && valueType == INT) ||
+                (type == BOOLEAN && (valueType == INT || valueType == DOUBLE));
+    }
+
+    private String literal(int type) {
+        switch (type) {
+            case INT -> {
+                int number = random.nextInt(MAX_INT_LITERAL);
+                return random.nextInt(FINAL_ODDS) == 0 ? "-" + number : Integer.toString(number);
+            }
+            case DOUBLE -> {
+                return switch (random.nextInt(4)) {
+                    case 0 -> random.nextInt(MAX_INT_LITERAL) + ".";
+                    case 1 -> "." + random.nextInt(MAX_INT_LITERAL);
+                    case 2 -> "-" + random.nextInt(MAX_INT_LITERAL) + "." + random.nextInt(10);
+                    default -> random.nextInt(MAX_INT_LITERAL) + "." + random.nextInt(MAX_INT_LITERAL);
+                };
+            }
+            case BOOLEAN -> {
+                return random.nextBoolean() ? "true" : "false";
+            }
+            case CHAR -> {
+                return "'" + (char) ('a' + random.nextInt(26)) + "'";
+            }
+            default -> {
+                return "\"text" + random.nextInt(MAX_INT_LITERAL) + "\"";
+            }
+        }
+    }
+
+    private int randomType() {
+        return weightedType(random.nextLong());
+    }
+
+    private int weightedType(long hash) {
+        int total = 0;
+        for (int weight : literalWeights) {
+            total += weight;
+        }
+        int pick = (int) Math.floorMod(hash, (long) total);
+        int type = 0;
+        while (pick >= literalWeights[type]) {
+            pick -= literalWeights[type];
+            type++;
+        }
+        return type;
+    }
+
+    private int globalType(int index) {
+        return weightedType(hash(GLOBAL_SALT, index));
+    }
+
+    private boolean isGlobalFinal(int index) {
+        return (hash(GLOBAL_SALT, index) >>> Integer.SIZE) % FINAL_ODDS == 0;
+    }
+
+    private int[] signature(int method) {
+        int[] signature = new int[(int) Math.floorMod(hash(SIGNATURE_SALT, method), (long) params + 1)];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = weightedType(hash(SIGNATURE_SALT + i + 1, method));
+        }
+        return signature;
+    }
+
+    /*
+     * a hash of the seed, a salt and an index, the finalizer of SplitMix64.
+     */
+    private long hash(long salt, long index) {
+        long z = seed + salt * GOLDEN_GAMMA + index * (GOLDEN_GAMMA | 1) * 31;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void writeLine(int level, String text) throws IOException {
+        for (int i = 0; i < level; i++) {
+            out.write(INDENT);
+        }
+        out.write(text);
+        out.write('\n');
+        lines++;
+    }
+}
@@ -0,0 +1,68 @@
+package ex5.bench;
+
+import ex5.main.BatchValidator;
+import ex5.main.Sjavac;
+import ex5.main.ValidationResult;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * A benchmark of the validation of a corpus where most files have errors, such as fuzzed input.
+ * every file is validated in the calling thread, so the cpu time and the allocation of the thread are
+ * the cost of the validation itself.
+ * usage: ErrorCorpusBenchmark [rounds] file-or-directory...
+ * @author noa.farag, noya.ashkenazi
+ */
+public class ErrorCorpusBenchmark {
+    private static final int DEFAULT_ROUNDS = 5;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args the number of rounds (optional), then the files and directories of the corpus.
+     * @throws IOException if the corpus cannot be listed.
+     */
+    public static void main(String[] args) throws IOException {
+        int rounds = DEFAULT_ROUNDS;
+        int first = 0;
+        if (args.length > 0 && args[0].matches("\\d+")) {
+            rounds = Integer.parseInt(args[0]);
+            first = 1;
+        }
+        String[] paths = new String[args.length - first];
+        System.arraycopy(args, first, paths, 0, paths.length);
+        List<String> files = BatchValidator.expandArguments(paths);
+
+        int[] statuses = new int[ValidationResult.GENERAL_ERROR + 1];
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            validateAll(files, statuses);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bestCpu = Long.MAX_VALUE;
+        long bestAllocated = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            statuses = new int[ValidationResult.GENERAL_ERROR + 1];
+            long cpu = threads.getCurrentThreadCpuTime();
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            validateAll(files, statuses);
+            bestCpu = Math.min(bestCpu, threads.getCurrentThreadCpuTime() - cpu);
+            bestAllocated = Math.min(bestAllocated, threads.getCurrentThreadAllocatedBytes() - allocated);
+        }
+        System.out.printf("files: %d (passed %d, errors %d, general errors %d)%n", files.size(),
+                statuses[ValidationResult.PASSED], statuses[ValidationResult.FOUND_ERRORS],
+                statuses[ValidationResult.GENERAL_ERROR]);
+        System.out.printf("best round: %.1f ms cpu, %.0f files/s, %d bytes allocated per file%n",
+                bestCpu / 1e6, files.size() * NANOS_PER_SECOND / bestCpu, bestAllocated / files.size());
+    }
+
+    private static void validateAll(List<String> files, int[] statuses) {
+        for (String file : files) {
+            statuses[Sjavac.validate(file).getStatus()]++;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package ex5.helpers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and phase times of the compiler, for the --stats option of the program.
+ * the counters are shared by all the files and threads of a run, so in batch mode they are the sums of
+ * all the files. they are off by default, and every hook returns at once when they are off, so the
+ * compiler pays a single branch for them.
+ * the counters must be enabled before the first file is read, the threads that scan the files see the
+ * change since they are started after it.
+ * @auther noa.farag, noya.ashkenazi
+ */
+public class CompileStats {
+    /**
+     * Reading the file into its line table, including counting its curly braces.
+     */
+    public static final int READ = 0;
+    /**
+     * Checking that the curly braces of the file are balanced.
+     */
+    public static final int BRACE_CHECK = 1;
+    /**
+     * The first scan, which maps the global variables and the methods.
+     */
+    public static final int FIRST_SCAN = 2;
+    /**
+     * The final scan, which checks the bodies of the methods.
+     */
+    public static final int FINAL_SCAN = 3;
+
+    private static final String[] PHASE_NAMES = {"read", "braceCheck", "firstScan", "finalScan"};
+    private static final LineType[] LINE_TYPES = LineType.values();
+
+    private static boolean enabled;
+
+    private static final LongAdder[] phaseWallNanos = newAdders(PHASE_NAMES.length);
+    private static final LongAdder[] phaseCpuNanos = newAdders(PHASE_NAMES.length);
+    private static final LongAdder braceCountingNanos = new LongAdder();
+    private static final LongAdder filesScanned = new LongAdder();
+    private static final LongAdder physicalLines = new LongAdder();
+    private static final LongAdder invalidLines = new LongAdder();
+    private static final LongAdder[] linesByType = newAdders(LINE_TYPES.length);
+    private static final LongAdder regexEvaluations = new LongAdder();
+    private static final LongAdder lookups = new LongAdder();
+    private static final LongAdder lookupScopes = new LongAdder();
+    private static final LongAdder variables = new LongAdder();
+    private static final AtomicInteger peakScopeDepth = new AtomicInteger();
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Start counting.
+     */
+    public static void enable() {
+        ManagementFactory.getThreadMXBean(); // load the management classes before the first phase is timed
+        enabled = true;
+    }
+
+    /**
+     * Check if the counters are on.
+     *
+     * @return true if the counters are on, false otherwise.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the wall clock, to start timing a phase.
+     *
+     * @return the wall clock in nanoseconds, 0 when the counters are off.
+     */
+    public static long wallTime() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Get the cpu time of the current thread, to start timing a phase.
+     *
+     * @return the cpu time in nanoseconds, 0 when the counters are off.
+     */
+    public static long cpuTime() {
+        if (!enabled) {
+            return 0;
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Add the time since the start of a phase.
+     *
+     * @param phase     the phase, one of READ, BRACE_CHECK, FIRST_SCAN and FINAL_SCAN.
+     * @param wallStart the wall clock when the phase started.
+     * @param cpuStart  the cpu time of the thread when the phase started.
+     */
+    public static void addPhase(int phase, long wallStart, long cpuStart) {
+        if (enabled) {
+            phaseWallNanos[phase].add(System.nanoTime() - wallStart);
+            phaseCpuNanos[phase].add(cpuTime() - cpuStart);
+        }
+    }
+
+    /**
+     * Add the cpu time that another thread spent on a phase, such as a method checked on the common pool.
+     *
+     * @param phase    the phase.
+     * @param cpuStart the cpu time of the thread when it started the work.
+     */
+    public static void addPhaseCpu(int phase, long cpuStart) {
+        if (enabled) {
+            phaseCpuNanos[phase].add(cpuTime() - cpuStart);
+        }
+    }
+
+    /**
+     * Add the time of counting the curly braces of a line.
+     *
+     * @param wallStart the wall clock when the counting started.
+     */
+    public static void addBraceCounting(long wallStart) {
+        if (enabled) {
+            braceCountingNanos.add(System.nanoTime() - wallStart);
+        }
+    }
+
+    /**
+     * Count a file that was scanned.
+     *
+     * @param lineCount the number of lines of the file, including the empty lines and the comments.
+     */
+    public static void countFile(int lineCount) {
+        if (enabled) {
+            filesScanned.increment();
+            physicalLines.add(lineCount);
+        }
+    }
+
+    /**
+     * Count a significant line by its type.
+     *
+     * @param type the type of the line, null if the line is invalid.
+     */
+    public static void countLine(LineType type) {
+        if (enabled) {
+            if (type == null) {
+                invalidLines.increment();
+            } else {
+                linesByType[type.ordinal()].increment();
+            }
+        }
+    }
+
+    /**
+     * Count an evaluation of a regular expression.
+     */
+    public static void countRegex() {
+        if (enabled) {
+            regexEvaluations.increment();
+        }
+    }
+
+    /**
+     * Count a lookup of a variable.
+     *
+     * @param scopes the number of scopes that were searched.
+     */
+    public static void countLookup(int scopes) {
+        if (enabled) {
+            lookups.increment();
+            lookupScopes.add(scopes);
+        }
+    }
+
+    /**
+     * Count a Variable object that was created.
+     */
+    public static void countVariable() {
+        if (enabled) {
+            variables.increment();
+        }
+    }
+
+    /**
+     * Record the depth of the scopes after a scope was entered, or after the global scope was opened.
+     *
+     * @param depth the number of open scopes.
+     */
+    public static void recordScopeDepth(int depth) {
+        if (enabled) {
+            int peak = peakScopeDepth.get();
+            while (depth > peak && !peakScopeDepth.compareAndSet(peak, depth)) {
+                peak = peakScopeDepth.get();
+            }
+        }
+    }
+
+    /**
+     * Write the counters as a single line of json.
+     *
+     * @param status the status that the program printed.
+     * @return the json object.
+     */
+    public static String toJson(int status) {
+        StringBuilder json = new StringBuilder("{\"status\":").append(status)
+                .append(",\"filesScanned\":").append(filesScanned.sum()).append(",\"phases\":{");
+        for (int phase = 0; phase < PHASE_NAMES.length; phase++) {
+            json.append(phase > 0 ? "," : "").append('"').append(PHASE_NAMES[phase])
+                    .append("\":{\"wallNanos\":").append(phaseWallNanos[phase].sum())
+                    .append(",\"cpuNanos\":").append(phaseCpuNanos[phase].sum());
+            if (phase == READ) {
+                json.append(",\"braceCountingWallNanos\":").append(braceCountingNanos.sum());
+            }
+            json.append('}');
+        }
+        long significant = invalidLines.sum();
+        for (LongAdder lines : linesByType) {
+            significant += lines.sum();
+        }
+        json.append("},\"lines\":{\"total\":").append(physicalLines.sum())
+                .append(",\"significant\":").append(significant)
+                .append(",\"invalid\":").append(invalidLines.sum());
+        for (LineType type : LINE_TYPES) {
+            json.append(",\"").append(type.name()).append("\":").append(linesByType[type.ordinal()].sum());
+        }
+        long lookupCount = lookups.sum();
+        json.append("},\"regexEvaluations\":").append(regexEvaluations.sum())
+                .append(",\"lookupVariable\":{\"calls\":").append(lookupCount)
+                .append(",\"averageDepth\":")
+                .append(lookupCount == 0 ? "0" : String.format(Locale.ROOT, "%.3f", (double) lookupScopes.sum() / lookupCount))
+                .append("},\"variablesAllocated\":").append(variables.sum())
+                .append(",\"peakScopeDepth\":").append(peakScopeDepth.get()).append('}');
+        return json.toString();
+    }
+}
@@ -0,0 +1,160 @@
+package ex5.helpers;
+
+import java.util.Arrays;
+
+/**
+ * Maps every identifier of a file to a dense int id.
+ * the words of the declaration lines are interned when they are lexed, so during the scans a name is
+ * hashed once and every scope after that is probed with its id. a name that was never interned was
+ * never declared.
+ * the interner is filled by one thread, after that it may be read by many threads as long as no new
+ * names are added.
+ * @auther noa.farag, noya.ashkenazi
+ */
+public class IdentifierInterner {
+    /**
+     * The id of a name that was never interned.
+     */
+    public static final int NOT_INTERNED = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private String[] names;
+    private int[] hashes;
+    private int[] slots; // id + 1 of the name in each slot, 0 for an empty slot
+    private int size;
+
+    /**
+     * Create an empty interner.
+     */
+    public IdentifierInterner() {
+        this.names = new String[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.slots = new int[INITIAL_CAPACITY * 2];
+        this.size = 0;
+    }
+
+    /**
+     * Intern every word token of a line.
+     *
+     * @param tokens the tokens of the line.
+     */
+    public synchronized void internWords(TokenStream tokens) {
+        String line = tokens.getLine();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!tokens.isWord(i)) {
+                continue;
+            }
+            int start = tokens.start(i);
+            int end = tokens.end(i);
+            int hash = 0;
+            for (int j = start; j < end; j++) {
+                hash = HASH_MULTIPLIER * hash + line.charAt(j);
+            }
+            intern(line, start, end, hash);
+        }
+    }
+
+    /**
+     * Intern a name.
+     *
+     * @param name the name to intern.
+     * @return the id of the name.
+     */
+    public synchronized int intern(String name) {
+        return intern(name, 0, name.length(), name.hashCode());
+    }
+
+    /**
+     * Get the id of a name, without interning it.
+     *
+     * @param name the name to look for.
+     * @return the id of the name, NOT_INTERNED if it was never interned.
+     */
+    public int idOf(String name) {
+        int hash = name.hashCode(); // the same hash as the words of a line, and cached by the string
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && names[id].equals(name)) {
+                return id;
+            }
+        }
+        return NOT_INTERNED;
+    }
+
+    /**
+     * Get the id of a name that is a part of a text, without interning it or cutting it out of the text.
+     *
+     * @param text  the text that holds the name.
+     * @param start the index of the first character of the name.
+     * @param end   the index after the last character of the name.
+     * @return the id of the name, NOT_INTERNED if it was never interned.
+     */
+    public int idOf(String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = HASH_MULTIPLIER * hash + text.charAt(i);
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && names[id].length() == end - start &&
+                    names[id].regionMatches(0, text, start, end - start)) {
+                return id;
+            }
+        }
+        return NOT_INTERNED;
+    }
+
+    /**
+     * Get the number of names that were interned.
+     *
+     * @return the number of names, every id is smaller than it.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int intern(String text, int start, int end, int hash) {
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && names[id].length() == end - start &&
+                    names[id].regionMatches(0, text, start, end - start)) {
+                return id;
+            }
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        names[id] = text.substring(start, end);
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -24,8 +24,6 @@ public class LineAnalyzer {
     private static final String INVALID_PARAMETERS = "Invalid parameters";
     private static final String FINAL = "final";
     private static final String BOOLEAN = "boolean";
-    private static final String INVALID_CONDITION = "Invalid condition";
-    private static final String TEMP = "temp";
     private static final String VARIABLE_NOT_INITIALIZED =
             "Trying to assign to a variable that is not initialized";
     private static final String INCOMPATIBLE_TYPES = "Trying to assign incompatible types";
@@ -34,10 +32,23 @@ public class LineAnalyzer {
     private static final String VOID_REP_REG = "void";
 
     private static final int FINAL_DEC_LENGTH = 3;
+    private static final String IF = "if";
+    private static final String WHILE = "while";
+    private static final String RETURN = "return";
+    private static final String INT = "int";
+    private static final String DOUBLE = "double";
+    private static final String STRING = "String";
+    private static final String CHAR = "char";
+    private static final char SEMI_COLON = ';';
+    private static final char COMMA = ',';
+    private static final char EQUALS = '=';
+    private static final char OPEN_SCOPE = '{';
+    private static final char CLOSE_SCOPE = '}';
 
 
     /**
      * Analyze a line of code.
+     * the line is split into tokens in one pass, and the line type is decided by its first tokens.
      *
      * @param line the line to analyze.
      * @return the analysis of the line. can be one of the following:
@@ -45,48 +56,160 @@ public class LineAnalyzer {
      * @throws InvalidLineSyntaxException if the line is invalid.
      */
     public static LineType analyzeLine(String line) throws  InvalidLineSyntaxException {
-        checkLine(line); // check if the end of the line is valid
-        if (isMethodDeclaration(line)) {
-            return LineType.METHOD_DECLARATION;
+        return analyzeLine(LineLexer.lex(line));
+    }
+
+    /**
+     * Analyze a line of code that was already split into tokens.
+     *
+     * @param tokens the tokens of the line to analyze.
+     * @return the analysis of the line.
+     * @throws InvalidLineSyntaxException if the line is invalid.
+     */
+    public static LineType analyzeLine(TokenStream tokens) throws  InvalidLineSyntaxException {
+        LineType type = classifyLine(tokens);
+        if (type == null) {
+            throw new InvalidLineSyntaxException(lineError(tokens));
         }
-        else if (isIfWhileStatement(line)) {
+        return type;
+    }
+
+    /**
+     * Classify a line without throwing, for lines that may well be invalid.
+     *
+     * @param tokens the tokens of the line to classify.
+     * @return the type of the line, null if the line is invalid.
+     */
+    public static LineType classifyLine(TokenStream tokens) {
+        if (!hasValidEnd(tokens.getLine())) { // check if the end of the line is valid
+            return null;
+        }
+        if (startsMethodDeclaration(tokens)) {
+            return isMethodDeclaration(tokens) ? LineType.METHOD_DECLARATION : null;
+        }
+        else if (isIfWhileStatement(tokens)) {
             return LineType.IF_WHILE_CONDITION;
         }
-        else if (isReturnStatement(line)) {
+        else if (isReturnStatement(tokens)) {
             return LineType.RETURN;
         }
-        else if (idMethodCall(line)) {
+        else if (idMethodCall(tokens)) {
             return LineType.METHOD_CALL;
         }
-        else if (isVariableDeclaration(line)) {
+        else if (isVariableDeclaration(tokens)) {
             return LineType.VARIABLE_DECLARATION;
         }
-        else if (isVariableAssignment(line)) {
+        else if (isVariableAssignment(tokens)) {
             return LineType.VARIABLE_ASSIGNMENT;
-        } else if (exitedScope(line)) {
+        } else if (isEndOfScope(tokens)) {
             return LineType.END_OF_SCOPE;
         }
         // if reached here, the line is invalid
-        throw new InvalidLineSyntaxException(INVALID_LINE_FORMAT);
+        return null;
     }
 
-    private static boolean isVariableAssignment(String line) {
-        //split by ,
-        String[] splitLine = line.split(COMMA_REGEX);
-        for (String s : splitLine) {
-            if (!RegexHelper.regexMatches(VARIABLE_ASSIGNMENT_REGEX, s)) {
+    /**
+     * Get the error of a line that classifyLine rejected.
+     *
+     * @param tokens the tokens of the line.
+     * @return the error message of the line.
+     */
+    public static String lineError(TokenStream tokens) {
+        if (!hasValidEnd(tokens.getLine())) {
+            return INVALID_LINE_MESSAGE;
+        }
+        if (startsMethodDeclaration(tokens)) {
+            return INVALID_METHOD_DECLARATION;
+        }
+        return INVALID_LINE_FORMAT;
+    }
+
+    private static boolean isVariableAssignment(TokenStream tokens) {
+        // name = value, name = value ... where a value has no whitespace inside
+        int size = tokens.size();
+        int i = 0;
+        while (i < size) {
+            if (!tokens.isWord(i) || Character.isDigit(tokens.firstChar(i))) {
+                return false;
+            }
+            if (!tokens.isSymbol(i + 1, EQUALS) || i + 2 >= size || tokens.isSymbol(i + 2, COMMA)) {
+                return false;
+            }
+            i += 3;
+            while (i < size && !tokens.isSymbol(i, COMMA)) {
+                if (tokens.isSpaceBefore(i)) {
+                    return false;
+                }
+                i++;
+            }
+            if (i == size) {
+                return true;
+            }
+            if (tokens.isSpaceBefore(i)) { // whitespace between the value and the comma
                 return false;
             }
+            i++;
         }
-        return true;
+        return false;
     }
 
-    private static boolean isVariableDeclaration(String line) {
-        return RegexHelper.regexMatches(VARIABLE_DECLARATION_REGEX, line);
+    private static boolean isVariableDeclaration(TokenStream tokens) {
+        // (final) type name...;
+        int typeIndex = tokens.isWord(0, FINAL) && tokens.isSpaceBefore(1) ? 1 : 0;
+        if (!isTypeName(tokens, typeIndex)) {
+            return false;
+        }
+        String line = tokens.getLine();
+        int last = line.length() - 1;
+        return line.charAt(last) == SEMI_COLON && isSpacesThenText(line, tokens.end(typeIndex), last);
     }
 
-    private static boolean idMethodCall(String line) {
-        return RegexHelper.regexMatches(METHOD_CALL_REGEX, line);
+    private static boolean isTypeName(TokenStream tokens, int index) {
+        return tokens.isWord(index, INT) || tokens.isWord(index, DOUBLE) || tokens.isWord(index, STRING) ||
+                tokens.isWord(index, BOOLEAN) || tokens.isWord(index, CHAR);
+    }
+
+    /*
+     * check that the chars between from and to are some whitespace followed by some text,
+     * the text may not contain line terminators.
+     */
+    private static boolean isSpacesThenText(String line, int from, int to) {
+        int textStart = from + 1;
+        for (int i = to - 1; i > from; i--) {
+            if (LineLexer.isLineTerminator(line.charAt(i))) {
+                textStart = i + 1;
+                break;
+            }
+        }
+        for (int i = from; i < textStart; i++) {
+            if (!LineLexer.isSpace(line.charAt(i))) {
+                return false;
+            }
+        }
+        return textStart < to;
+    }
+
+    private static boolean idMethodCall(TokenStream tokens) {
+        // name(...);
+        return tokens.isWordStartingWithLetter(0) && isEnclosedInBracelets(tokens, SEMI_COLON);
+    }
+
+    /*
+     * check that the second token opens a bracelet that is closed right before the last token.
+     */
+    private static boolean isEnclosedInBracelets(TokenStream tokens, char lastSymbol) {
+        int size = tokens.size();
+        if (size < 4 || !tokens.isSymbol(1, LEFT_BRACELET) || !tokens.isSymbol(size - 2, RIGHT_BRACELET) ||
+                !tokens.isSymbol(size - 1, lastSymbol)) {
+            return false;
+        }
+        String line = tokens.getLine();
+        for (int i = tokens.end(1); i < tokens.start(size - 2); i++) {
+            if (LineLexer.isLineTerminator(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -96,30 +219,46 @@ public class LineAnalyzer {
      * @return true if the line is a return statement, false otherwise.
      */
     public static boolean isReturnStatement(String line) {
-        return RegexHelper.regexMatches(RETURN_REGEX, line);
+        return isReturnStatement(LineLexer.lex(line));
     }
 
-    private static void checkLine(String line) throws InvalidLineSyntaxException {
+    private static boolean isReturnStatement(TokenStream tokens) {
+        return tokens.size() == 2 && tokens.isWord(0, RETURN) && tokens.isSymbol(1, SEMI_COLON);
+    }
 
-        if (!line.endsWith(SEMI_COLON_REGEX) && !line.endsWith(RIGHT_CURLY_BRACE) &&
-                !line.endsWith(LEFT_CURLY_BRACE)) {
-            // need to catch this exception.
-            throw new InvalidLineSyntaxException(INVALID_LINE_MESSAGE);
-        }
+    private static boolean hasValidEnd(String line) {
+        return line.endsWith(SEMI_COLON_REGEX) || line.endsWith(RIGHT_CURLY_BRACE) ||
+                line.endsWith(LEFT_CURLY_BRACE);
     }
 
-    private static boolean isIfWhileStatement(String line) {
-        return RegexHelper.regexMatches(IF_WHILE_REGEX, line);
+    private static boolean isIfWhileStatement(TokenStream tokens) {
+        // if (...) { or while (...) {
+        return (tokens.isWord(0, IF) || tokens.isWord(0, WHILE)) &&
+                isEnclosedInBracelets(tokens, OPEN_SCOPE);
     }
 
-    private static boolean isMethodDeclaration(String line) throws InvalidLineSyntaxException {
-        if (!RegexHelper.regexFind(VOID_REGEX, line)) {
-            return false;
-        }
-        if (!RegexHelper.regexMatches(METHOD_DECLARATION_REGEX, line)) {
-            throw new InvalidLineSyntaxException(INVALID_METHOD_DECLARATION);
+    private static boolean startsMethodDeclaration(TokenStream tokens) {
+        return tokens.isWord(0, VOID_REP_REG) && tokens.isSpaceBefore(1);
+    }
+
+    private static boolean isMethodDeclaration(TokenStream tokens) {
+        // void name(words and commas) {
+        int i = 2;
+        if (tokens.isWordStartingWithLetter(1) && tokens.isSymbol(i, LEFT_BRACELET)) {
+            i++;
+            while (tokens.isWord(i) || tokens.isSymbol(i, COMMA)) {
+                i++;
+            }
+            if (tokens.isSymbol(i, RIGHT_BRACELET) && tokens.isSymbol(i + 1, OPEN_SCOPE) &&
+                    i + 2 == tokens.size()) {
+                return true;
+            }
         }
-        return true;
+        return false;
+    }
+
+    private static boolean isEndOfScope(TokenStream tokens) {
+        return tokens.size() == 1 && tokens.isSymbol(0, CLOSE_SCOPE);
     }
 
     /**
@@ -129,8 +268,8 @@ public class LineAnalyzer {
      * @return true if the line entered a new scope, false otherwise.
      */
     public static boolean enteredScope(String line) {
-        String withoutString = line.replaceAll(STRING_EXPRESSION, "");
-        return RegexHelper.regexFind(REGEX_LEFT_CURLY_BRACELET, withoutString);
+        String withoutString = RegexHelper.regexRemoveAll(RegexPattern.STRING_EXPRESSION_PATTERN, line);
+        return RegexHelper.regexFind(RegexPattern.LEFT_CURLY_BRACELET, withoutString);
     }
 
     /**
@@ -140,7 +279,7 @@ public class LineAnalyzer {
      * @return true if the line exited a scope, false otherwise.
      */
     public static boolean exitedScope(String line) {
-        return RegexHelper.regexMatches(REGEX_RIGHT_CURLY_BRACELET, line);
+        return RegexHelper.regexMatches(RegexPattern.RIGHT_CURLY_BRACELET, line);
     }
 
     /**
@@ -162,14 +301,15 @@ public class LineAnalyzer {
         boolean isFinal;
         // handle final
         String finalRemoved = line.trim();
-        if (RegexHelper.regexMatches(FINAL_REGEX, line)) {
+        if (RegexHelper.regexMatches(RegexPattern.FINAL, line)) {
             isFinal = true;
-            finalRemoved = line.replaceFirst(FINAL_REDUNDANT_REGEX, "");
+            finalRemoved = RegexHelper.regexRemoveFirst(RegexPattern.FINAL_REDUNDANT, line);
         } else {
             isFinal = false;
         }
         // handle type
-        String type = finalRemoved.split(SPACES_REGEX)[0];
+        String type = RegexHelper.regexSplit(RegexPattern.SPACES, finalRemoved)[0];
+        CompileStats.countRegex();
         String typeRemoved = finalRemoved.replaceFirst(type, "");
         typeRemoved = typeRemoved.substring(0, typeRemoved.length() - 1).strip(); // remove semicolon
 
@@ -192,14 +332,16 @@ public class LineAnalyzer {
                 }
                 variable = new Variable(variableDetails[0].trim(), type, isFinal);
                 String value = variableDetails[1].trim();
-                if (lookupVariable.apply(value) != null) {
-                    if (!lookupVariable.apply(value).getIsInitialized()) {
+                Variable valueVariable = lookupVariable.apply(value);
+                if (valueVariable != null) {
+                    if (!valueVariable.getIsInitialized()) {
                         throw new InvalidLineSyntaxException(VARIABLE_NOT_INITIALIZED);
                     }
-                    checkAssignmentType(variable, lookupVariable.apply(value));
-                    value = lookupVariable.apply(value).getValue();
+                    checkAssignmentType(variable, valueVariable);
+                    variable.addValue(valueVariable.getValue());
+                } else {
+                    variable.addValue(value);
                 }
-                variable.addValue(value);
             }
             variables[i] = variable;
             i++;
@@ -230,6 +372,7 @@ public class LineAnalyzer {
      */
     public static Method extractMethod(String line) throws SyntaxException {
         Variable[] parameters = extractParameters(line);
+        CompileStats.countRegex();
         String body = line.replaceFirst(VOID_REP_REG, "").trim();
         String name = body.split(RIGHT_BRACELET_REGEX)[0].trim();
         return new Method(name, parameters);
@@ -247,7 +390,7 @@ public class LineAnalyzer {
             return null;
         }
         for (String parameter : parameters) {
-            String[] parameterDetails = parameter.trim().split(SPACES_REGEX);
+            String[] parameterDetails = RegexHelper.regexSplit(RegexPattern.SPACES, parameter.trim());
             if (parameterDetails.length > FINAL_DEC_LENGTH) {
                 throw new InvalidLineSyntaxException(INVALID_PARAMETERS);
             }
@@ -273,34 +416,4 @@ public class LineAnalyzer {
         }
         return variables;
     }
-
-    /**
-     * Analyze a condition.
-     *
-     * @param condition the condition to analyze.
-     * @param lookupVariable a function to lookup a variable by name.
-     * @throws InvalidValueException if the condition has an invalid value.
-     * @throws InvalidNameException if the condition has an invalid name.
-     * @throws InvalidVariableTypeException if the condition has an invalid type.
-     * @throws InvalidLineSyntaxException if the condition has an invalid syntax.
-     */
-    public static void conditionAnalyzer(String condition, Function<String, Variable> lookupVariable)
-            throws InvalidValueException, InvalidNameException, InvalidVariableTypeException,
-            InvalidLineSyntaxException {
-        // check if the condition is an initialized variable
-        Variable variable = lookupVariable.apply(condition);
-        if (variable == null) {
-            Variable booleanVariable = new Variable(TEMP, BOOLEAN, false);
-            booleanVariable.addValue(condition);
-            // if no exception was thrown, the condition is valid! :)
-            return;
-        }
-
-        else if ((variable.getType() == VariableType.BOOLEAN ||
-                variable.getType() == VariableType.INT ||
-                variable.getType() == VariableType.DOUBLE) && variable.getIsInitialized()) {
-            return; //condition is valid! :)
-        }
-        throw new InvalidLineSyntaxException(INVALID_CONDITION);
-    }
 }
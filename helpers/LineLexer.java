@@ -0,0 +1,82 @@
+package ex5.helpers;
+
+/**
+ * A hand written lexer that turns a line into a TokenStream in one left to right pass.
+ * whitespace is the same set of chars as \s of java regex, words are runs of \w chars and
+ * any other char is a symbol token of its own.
+ * @auther noa.farag, noya.ashkenazi
+ */
+public class LineLexer {
+
+    /**
+     * Split a line into tokens.
+     *
+     * @param line the line to split.
+     * @return the tokens of the line.
+     */
+    public static TokenStream lex(String line) {
+        TokenStream tokens = new TokenStream(line);
+        int length = line.length();
+        boolean afterSpace = false;
+        int i = 0;
+        while (i < length) {
+            char c = line.charAt(i);
+            if (isSpace(c)) {
+                afterSpace = true;
+                i++;
+                continue;
+            }
+            int start = i;
+            if (isWordChar(c)) {
+                do {
+                    i++;
+                } while (i < length && isWordChar(line.charAt(i)));
+            } else {
+                i++;
+            }
+            tokens.add(start, i, afterSpace);
+            afterSpace = false;
+        }
+        return tokens;
+    }
+
+    /**
+     * Check if a char is whitespace, as matched by \s.
+     *
+     * @param c the char to check.
+     * @return true if the char is whitespace, false otherwise.
+     */
+    public static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Check if a char is a word char, as matched by \w.
+     *
+     * @param c the char to check.
+     * @return true if the char is a word char, false otherwise.
+     */
+    public static boolean isWordChar(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Check if a char is an english letter.
+     *
+     * @param c the char to check.
+     * @return true if the char is an english letter, false otherwise.
+     */
+    public static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Check if a char ends a line, these are the chars that a regex dot does not match.
+     *
+     * @param c the char to check.
+     * @return true if the char is a line terminator, false otherwise.
+     */
+    public static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -1,15 +1,20 @@
 package ex5.helpers;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * A Helper class for regex with static methods.
  * will be called without an instance of the class.
+ * the expressions of RegExConstants should be used through RegexPattern, which compiles them once.
  * @auther noa.farag, noya.ashkenazi
  */
 public class RegexHelper {
 
+    private static final Map<String, Pattern> compiledPatterns = new ConcurrentHashMap<>();
+
     /**
      * A method that checks if a word matches a regex phrase.
      *
@@ -18,7 +23,8 @@ public class RegexHelper {
      * @return true if the word matches the regex phrase, false otherwise.
      */
     public static boolean regexMatches(String regexPhrase, String word) {
-        Pattern pattern = Pattern.compile(regexPhrase);
+        CompileStats.countRegex();
+        Pattern pattern = compiledPatterns.computeIfAbsent(regexPhrase, Pattern::compile);
         Matcher matcher = pattern.matcher(word);
         return matcher.matches();
     }
@@ -31,8 +37,66 @@ public class RegexHelper {
      * @return true if the word contains the regex phrase, false otherwise.
      */
     public static boolean regexFind(String regexPhrase, String word) {
-        Pattern pattern = Pattern.compile(regexPhrase);
+        CompileStats.countRegex();
+        Pattern pattern = compiledPatterns.computeIfAbsent(regexPhrase, Pattern::compile);
         Matcher matcher = pattern.matcher(word);
         return matcher.find();
     }
-}
\ No newline at end of file
+
+    /**
+     * A method that checks if a word matches a registered pattern.
+     *
+     * @param pattern the pattern.
+     * @param word    the word to check.
+     * @return true if the word matches the pattern, false otherwise.
+     */
+    public static boolean regexMatches(RegexPattern pattern, CharSequence word) {
+        return pattern.matcher(word).matches();
+    }
+
+    /**
+     * A method that checks if a word contains a registered pattern.
+     *
+     * @param pattern the pattern.
+     * @param word    the word to check.
+     * @return true if the word contains the pattern, false otherwise.
+     */
+    public static boolean regexFind(RegexPattern pattern, CharSequence word) {
+        return pattern.matcher(word).find();
+    }
+
+    /**
+     * A method that removes every occurrence of a registered pattern from a word.
+     *
+     * @param pattern the pattern.
+     * @param word    the word.
+     * @return the word without the occurrences of the pattern.
+     */
+    public static String regexRemoveAll(RegexPattern pattern, CharSequence word) {
+        return pattern.matcher(word).replaceAll("");
+    }
+
+    /**
+     * A method that removes the first occurrence of a registered pattern from a word.
+     *
+     * @param pattern the pattern.
+     * @param word    the word.
+     * @return the word without the first occurrence of the pattern.
+     */
+    public static String regexRemoveFirst(RegexPattern pattern, CharSequence word) {
+        return pattern.matcher(word).replaceFirst("");
+    }
+
+    /**
+     * A method that splits a word around the occurrences of a registered pattern.
+     * behaves like String.split.
+     *
+     * @param pattern the pattern.
+     * @param word    the word to split.
+     * @return the parts of the word.
+     */
+    public static String[] regexSplit(RegexPattern pattern, CharSequence word) {
+        CompileStats.countRegex();
+        return pattern.pattern().split(word);
+    }
+}
@@ -0,0 +1,75 @@
+package ex5.helpers;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static ex5.helpers.RegExConstants.*;
+
+/**
+ * A registry of the regex expressions used by the compiler.
+ * every expression of RegExConstants is compiled once, when the enum is loaded,
+ * and every thread reuses its own matcher for it.
+ * @auther noa.farag, noya.ashkenazi
+ */
+public enum RegexPattern {
+    // line analysis
+    VARIABLE_ASSIGNMENT(VARIABLE_ASSIGNMENT_REGEX),
+    VARIABLE_DECLARATION(VARIABLE_DECLARATION_REGEX),
+    METHOD_CALL(METHOD_CALL_REGEX),
+    RETURN(RETURN_REGEX),
+    IF_WHILE(IF_WHILE_REGEX),
+    VOID(VOID_REGEX),
+    METHOD_DECLARATION(METHOD_DECLARATION_REGEX),
+    FINAL(FINAL_REGEX),
+    STRING_EXPRESSION_PATTERN(STRING_EXPRESSION),
+    LEFT_CURLY_BRACELET(REGEX_LEFT_CURLY_BRACELET),
+    RIGHT_CURLY_BRACELET(REGEX_RIGHT_CURLY_BRACELET),
+    FINAL_REDUNDANT(FINAL_REDUNDANT_REGEX),
+    SPACES(SPACES_REGEX),
+    ONLY_SPACES_PATTERN(ONLY_SPACES),
+    OR_CONDITION(OR_CONDITION_REGEX),
+    AND_CONDITION(AND_CONDITION_REGEX),
+    // names
+    METHOD_NAME(METHOD_NAME_REGEX),
+    VARIABLE_NAME(VARIABLE_NAME_REGEX),
+    VARIABLE_NAME__(VARIABLE_NAME_REGEX__),
+    // values
+    TRUE_FALSE(TRUE_FALSE_REGEX),
+    DOUBLE_DOT_IN_BEGINNING(DOUBLE_DOT_IN_BEGINNING_REGEX),
+    DOUBLE_DOT_IN_MIDDLE(DOUBLE_DOT_IN_MIDDLE_REGEX),
+    DOUBLE_DOT_IN_END(DOUBLE_DOT_IN_END_REGEX),
+    STRING_VALUE(STRING_REGEX),
+    CHAR_VALUE(CHAR_REGEX),
+    INT_VALUE(INT_REGEX),
+    POSITIVE_INT(POSITIVE_INT_REGEX),
+    NEGATIVE_INT(NEGATIVE_INT_REGEX);
+
+    private final Pattern pattern;
+    private final ThreadLocal<Matcher> matcher;
+
+    RegexPattern(String regex) {
+        this.pattern = Pattern.compile(regex);
+        this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+    }
+
+    /**
+     * Get the compiled pattern.
+     *
+     * @return the compiled pattern.
+     */
+    public Pattern pattern() {
+        return pattern;
+    }
+
+    /**
+     * Get the matcher of the current thread, reset to the given input.
+     * the matcher is shared by all the calls of the thread, so it must not be kept by the caller.
+     *
+     * @param input the input to match.
+     * @return the matcher of the current thread.
+     */
+    public Matcher matcher(CharSequence input) {
+        CompileStats.countRegex();
+        return matcher.get().reset(input);
+    }
+}
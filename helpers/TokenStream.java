@@ -0,0 +1,153 @@
+package ex5.helpers;
+
+import java.util.Arrays;
+
+/**
+ * The tokens of a single line, as produced by the LineLexer.
+ * a token is either a word (a maximal run of letters, digits and underscores) or a single symbol.
+ * whitespace is not a token, it is only remembered as a flag on the token that follows it.
+ * @auther noa.farag, noya.ashkenazi
+ */
+public class TokenStream {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String line;
+    private int[] starts;
+    private int[] ends;
+    private boolean[] spaceBefore;
+    private int size;
+
+    /**
+     * The constructor of the TokenStream class.
+     *
+     * @param line the line the tokens belong to.
+     */
+    TokenStream(String line) {
+        this.line = line;
+        this.starts = new int[INITIAL_CAPACITY];
+        this.ends = new int[INITIAL_CAPACITY];
+        this.spaceBefore = new boolean[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Add a token to the end of the stream.
+     *
+     * @param start      the index of the first char of the token.
+     * @param end        the index after the last char of the token.
+     * @param afterSpace true if the token is preceded by whitespace.
+     */
+    void add(int start, int end, boolean afterSpace) {
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            spaceBefore = Arrays.copyOf(spaceBefore, capacity);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        spaceBefore[size] = afterSpace;
+        size++;
+    }
+
+    /**
+     * Get the line the tokens belong to.
+     *
+     * @return the line.
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Get the number of tokens.
+     *
+     * @return the number of tokens.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the index of the first char of a token.
+     *
+     * @param index the index of the token.
+     * @return the index of the first char of the token in the line.
+     */
+    public int start(int index) {
+        return starts[index];
+    }
+
+    /**
+     * Get the index after the last char of a token.
+     *
+     * @param index the index of the token.
+     * @return the index after the last char of the token in the line.
+     */
+    public int end(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Check if a token is preceded by whitespace.
+     *
+     * @param index the index of the token.
+     * @return true if there is whitespace right before the token, false otherwise.
+     */
+    public boolean isSpaceBefore(int index) {
+        return index < size && spaceBefore[index];
+    }
+
+    /**
+     * Check if a token is a word.
+     *
+     * @param index the index of the token.
+     * @return true if the token exists and is a word, false otherwise.
+     */
+    public boolean isWord(int index) {
+        return index >= 0 && index < size && LineLexer.isWordChar(line.charAt(starts[index]));
+    }
+
+    /**
+     * Check if a token is a given word.
+     *
+     * @param index the index of the token.
+     * @param word  the word.
+     * @return true if the token exists and is exactly the given word, false otherwise.
+     */
+    public boolean isWord(int index, String word) {
+        return isWord(index) && ends[index] - starts[index] == word.length() &&
+                line.startsWith(word, starts[index]);
+    }
+
+    /**
+     * Check if a token is a word that starts with a letter.
+     *
+     * @param index the index of the token.
+     * @return true if the token exists and is a word that starts with a letter, false otherwise.
+     */
+    public boolean isWordStartingWithLetter(int index) {
+        return isWord(index) && LineLexer.isLetter(line.charAt(starts[index]));
+    }
+
+    /**
+     * Check if a token is a given symbol.
+     *
+     * @param index  the index of the token.
+     * @param symbol the symbol.
+     * @return true if the token exists and is the given symbol, false otherwise.
+     */
+    public boolean isSymbol(int index, char symbol) {
+        return index >= 0 && index < size && line.charAt(starts[index]) == symbol;
+    }
+
+    /**
+     * Get the first char of a token.
+     *
+     * @param index the index of the token.
+     * @return the first char of the token.
+     */
+    public char firstChar(int index) {
+        return line.charAt(starts[index]);
+    }
+}
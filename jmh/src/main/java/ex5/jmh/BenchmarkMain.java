@@ -0,0 +1,32 @@
+package ex5.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every benchmark reports its allocation rate next to its
+ * throughput.
+ * the arguments are the ones of the JMH runner, such as a regex of the benchmarks to run.
+ * usage: java -jar jmh/target/benchmarks.jar [JMH options] [benchmark regex]
+ * @author noa.farag, noya.ashkenazi
+ */
+public class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args the options of the JMH runner.
+     * @throws CommandLineOptionException if the options are not valid.
+     * @throws RunnerException            if a benchmark fails.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+    }
+}
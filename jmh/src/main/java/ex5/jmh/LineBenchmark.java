@@ -0,0 +1,77 @@
+package ex5.jmh;
+
+import ex5.helpers.InvalidLineSyntaxException;
+import ex5.helpers.LineAnalyzer;
+import ex5.helpers.LineLexer;
+import ex5.helpers.LineType;
+import ex5.helpers.TokenStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the lexer and of the classification of a line, for a line of every LineType.
+ * @author noa.farag, noya.ashkenazi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineBenchmark {
+    private static final Map<LineType, String> LINES = Map.of(
+            LineType.VARIABLE_DECLARATION, "final int a = 5, b, c = 7;",
+            LineType.VARIABLE_ASSIGNMENT, "a = 6, b = a;",
+            LineType.METHOD_DECLARATION, "void foo(int a, final String b, double c) {",
+            LineType.METHOD_CALL, "foo(1, \"text\", 2.5);",
+            LineType.IF_WHILE_CONDITION, "if (a || true && b) {",
+            LineType.RETURN, "return;",
+            LineType.END_OF_SCOPE, "}");
+
+    @Param({"VARIABLE_DECLARATION", "VARIABLE_ASSIGNMENT", "METHOD_DECLARATION", "METHOD_CALL",
+            "IF_WHILE_CONDITION", "RETURN", "END_OF_SCOPE"})
+    private LineType lineType;
+
+    private String line;
+
+    /**
+     * Pick the line of the type.
+     */
+    @Setup
+    public void setUp() {
+        line = LINES.get(lineType);
+    }
+
+    /**
+     * Split the line into its tokens.
+     *
+     * @return the tokens.
+     */
+    @Benchmark
+    public TokenStream lex() {
+        return LineLexer.lex(line);
+    }
+
+    /**
+     * Lex the line and find its type.
+     *
+     * @return the type of the line.
+     * @throws InvalidLineSyntaxException if the line is not valid, never for these lines.
+     */
+    @Benchmark
+    public LineType analyzeLine() throws InvalidLineSyntaxException {
+        return LineAnalyzer.analyzeLine(line);
+    }
+}
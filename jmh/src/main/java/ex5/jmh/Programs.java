@@ -0,0 +1,46 @@
+package ex5.jmh;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The legal programs that the benchmarks of whole files run on.
+ * @author noa.farag, noya.ashkenazi
+ */
+final class Programs {
+    /**
+     * The name of the file of the programs.
+     */
+    static final String PROGRAM_NAME = "benchmark.sjava";
+
+    private Programs() {
+    }
+
+    /**
+     * A legal program, where every method declares locals, nests a while in an if, assigns and calls the
+     * next method.
+     *
+     * @param methods the number of the methods, and of the global variables.
+     * @return the bytes of the program.
+     */
+    static byte[] program(int methods) {
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < methods; i++) {
+            program.append("int g").append(i).append(" = ").append(i).append(";\n");
+        }
+        for (int i = 0; i < methods; i++) {
+            program.append("void m").append(i).append("(int a, double b, String s) {\n")
+                    .append("    int x = g").append(i).append(";\n")
+                    .append("    double y = b;\n")
+                    .append("    boolean ok = true;\n")
+                    .append("    if (ok || x) {\n")
+                    .append("        while (y && false) {\n")
+                    .append("            x = a;\n")
+                    .append("            m").append((i + 1) % methods).append("(x, y, \"text\");\n")
+                    .append("        }\n")
+                    .append("    }\n")
+                    .append("    return;\n")
+                    .append("}\n");
+        }
+        return program.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,132 @@
+package ex5.jmh;
+
+import ex5.main.CompileException;
+import ex5.main.GeneralScanner;
+import ex5.main.ScopeManager;
+import ex5.main.Sjavac;
+import ex5.main.SourceFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the scans of a whole legal file, and of the whole pipeline from its bytes, on small,
+ * medium and huge programs.
+ * @author noa.farag, noya.ashkenazi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScanBenchmark {
+    @Param({"10", "1000", "50000"})
+    private int methods;
+
+    private byte[] content;
+    private SourceFile source;
+
+    /**
+     * A scanner after its first scan, created before every call, so the final scan is measured alone.
+     */
+    @State(Scope.Thread)
+    public static class ScannedFile {
+        private GeneralScanner scanner;
+
+        /**
+         * Run the first scan of the file.
+         *
+         * @param benchmark the benchmark, which holds the lines of the file.
+         * @throws IOException      never, the file was already read.
+         * @throws CompileException never, the program is legal.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(ScanBenchmark benchmark) throws IOException, CompileException {
+            scanner = benchmark.newScanner();
+            scanner.firstFileScan();
+        }
+    }
+
+    /**
+     * Generate the program and read its lines.
+     *
+     * @throws IOException      never, the program is in memory.
+     * @throws CompileException if the program is not legal, so every call would measure an error.
+     */
+    @Setup
+    public void setUp() throws IOException, CompileException {
+        content = Programs.program(methods);
+        source = SourceFile.read(content);
+        new Sjavac(Programs.PROGRAM_NAME).run(source);
+    }
+
+    private GeneralScanner newScanner() {
+        return new GeneralScanner(new ScopeManager(source.getInterner()), source);
+    }
+
+    /**
+     * Read the lines of the file from its bytes.
+     *
+     * @return the lines.
+     * @throws IOException never, the program is in memory.
+     */
+    @Benchmark
+    public SourceFile read() throws IOException {
+        return SourceFile.read(content);
+    }
+
+    /**
+     * Scan the global variables and the method declarations of the file.
+     *
+     * @return the scanner.
+     * @throws IOException      never, the file was already read.
+     * @throws CompileException never, the program is legal.
+     */
+    @Benchmark
+    public GeneralScanner firstScan() throws IOException, CompileException {
+        GeneralScanner scanner = newScanner();
+        scanner.firstFileScan();
+        return scanner;
+    }
+
+    /**
+     * Check the bodies of the methods of the file.
+     *
+     * @param file the file after its first scan.
+     * @return the scanner.
+     * @throws IOException      never, the file was already read.
+     * @throws CompileException never, the program is legal.
+     */
+    @Benchmark
+    public GeneralScanner finalScan(ScannedFile file) throws IOException, CompileException {
+        file.scanner.finalFileScan();
+        return file.scanner;
+    }
+
+    /**
+     * Validate the file from its bytes, the way a run of the program does.
+     *
+     * @return the lines of the file.
+     * @throws IOException      never, the program is in memory.
+     * @throws CompileException never, the program is legal.
+     */
+    @Benchmark
+    public SourceFile run() throws IOException, CompileException {
+        SourceFile file = SourceFile.read(content);
+        new Sjavac(Programs.PROGRAM_NAME).run(file);
+        return file;
+    }
+}
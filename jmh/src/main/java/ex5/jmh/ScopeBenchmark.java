@@ -0,0 +1,65 @@
+package ex5.jmh;
+
+import ex5.main.CompileException;
+import ex5.main.ScopeManager;
+import ex5.models.Variable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A benchmark of the lookup of a variable, at several depths of scopes.
+ * the variable is global, so every lookup searches all the scopes above it.
+ * @author noa.farag, noya.ashkenazi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScopeBenchmark {
+    private static final String VARIABLE_NAME = "value";
+    private static final String VARIABLE_TYPE = "int";
+
+    @Param({"1", "4", "16", "64"})
+    private int depth;
+
+    private ScopeManager scopeManager;
+
+    /**
+     * Declare the variable in the global scope, then open the scopes above it.
+     *
+     * @throws CompileException never, the variable is valid.
+     */
+    @Setup
+    public void setUp() throws CompileException {
+        scopeManager = new ScopeManager();
+        scopeManager.enterScope();
+        scopeManager.getInterner().intern(VARIABLE_NAME); // the name is not read from a file
+        scopeManager.declareVariable(VARIABLE_NAME, new Variable(VARIABLE_NAME, VARIABLE_TYPE, false));
+        for (int i = 1; i < depth; i++) {
+            scopeManager.enterScope();
+        }
+    }
+
+    /**
+     * Look the variable up from the innermost scope.
+     *
+     * @return the variable.
+     */
+    @Benchmark
+    public Variable lookupVariable() {
+        return scopeManager.lookupVariable(VARIABLE_NAME);
+    }
+}
@@ -0,0 +1,69 @@
+package ex5.jmh;
+
+import ex5.models.InvalidNameException;
+import ex5.models.InvalidValueException;
+import ex5.models.InvalidVariableTypeException;
+import ex5.models.Variable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A benchmark of the check of a value against a variable, for a variable of every type.
+ * @author noa.farag, noya.ashkenazi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueBenchmark {
+    private static final String VARIABLE_NAME = "value";
+    private static final Map<String, String> VALUES = Map.of(
+            "int", "42",
+            "double", "-4.25",
+            "String", "\"some text\"",
+            "char", "'c'",
+            "boolean", "true");
+
+    @Param({"int", "double", "String", "char", "boolean"})
+    private String type;
+
+    private Variable variable;
+    private String value;
+
+    /**
+     * Create the variable of the type.
+     *
+     * @throws InvalidNameException         never, the name is valid.
+     * @throws InvalidVariableTypeException never, the type is valid.
+     */
+    @Setup
+    public void setUp() throws InvalidNameException, InvalidVariableTypeException {
+        variable = new Variable(VARIABLE_NAME, type, false);
+        value = VALUES.get(type);
+    }
+
+    /**
+     * Check a valid value of the type.
+     *
+     * @return true, the value is valid.
+     * @throws InvalidValueException never, the value is valid.
+     */
+    @Benchmark
+    public boolean isValueValid() throws InvalidValueException {
+        return variable.isValueValid(value);
+    }
+}
@@ -0,0 +1,165 @@
+package ex5.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The BatchValidator class validates many files in one run of the program.
+ * the arguments may be files, directories (searched recursively for .sjava files) or @argfiles
+ * (a file with one path or directory in each line).
+ * the files are validated in parallel on a work stealing pool, the largest files are started first,
+ * and the results are printed in the order of the arguments.
+ * when all the errors are collected, every error is printed as path:line:column: message.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class BatchValidator {
+    private static final String ARGUMENT_FILE_PREFIX = "@";
+    private static final String FILE_FORMAT = ".sjava";
+    private static final String RESULT_SEPARATOR = ": ";
+    private static final String FILE_NOT_FOUND_ERROR = "File not found";
+
+    private final List<String> files;
+    private final ResultCache cache;
+    private final boolean allErrors;
+
+    /**
+     * The constructor of the BatchValidator class.
+     *
+     * @param files     the paths of the files to validate.
+     * @param cache     the cache of results, null to validate every file.
+     * @param allErrors true to collect all the errors of every file, false to stop at the first one.
+     */
+    public BatchValidator(List<String> files, ResultCache cache, boolean allErrors) {
+        this.files = files;
+        this.cache = cache;
+        this.allErrors = allErrors;
+    }
+
+    /**
+     * Check if the arguments of the program ask for batch mode.
+     *
+     * @param args the arguments given to the program.
+     * @return true if there is more than one argument, or the argument is a directory or an @argfile.
+     */
+    public static boolean isBatch(String[] args) {
+        if (args.length > 1) {
+            return true;
+        }
+        return args.length == 1 &&
+                (args[0].startsWith(ARGUMENT_FILE_PREFIX) || new File(args[0]).isDirectory());
+    }
+
+    /**
+     * Validate all the files given as arguments and print their results.
+     * every file prints its path and status to the output, and its path and error message, if there is
+     * one, to the error stream.
+     *
+     * @param args      the arguments given to the program.
+     * @param cache     the cache of results, null to validate every file.
+     * @param allErrors true to collect all the errors of every file, false to stop at the first one.
+     * @param out       the stream to print the statuses to.
+     * @param err       the stream to print the error messages to.
+     * @return the aggregate status, the highest status of all the files.
+     */
+    public static int runBatch(String[] args, ResultCache cache, boolean allErrors, PrintStream out,
+                               PrintStream err) {
+        List<String> files;
+        try {
+            files = expandArguments(args);
+        } catch (NoSuchFileException e) {
+            err.println(FILE_NOT_FOUND_ERROR + RESULT_SEPARATOR + e.getFile());
+            out.println(ValidationResult.GENERAL_ERROR);
+            return ValidationResult.GENERAL_ERROR;
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            out.println(ValidationResult.GENERAL_ERROR);
+            return ValidationResult.GENERAL_ERROR;
+        }
+        return new BatchValidator(files, cache, allErrors).run(out, err);
+    }
+
+    /**
+     * Turn the arguments of the program into a list of files.
+     *
+     * @param args the arguments given to the program.
+     * @return the paths of the files, in the order of the arguments.
+     * @throws IOException if an @argfile or a directory cannot be read.
+     */
+    public static List<String> expandArguments(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(ARGUMENT_FILE_PREFIX)) {
+                for (String line : Files.readAllLines(Path.of(arg.substring(ARGUMENT_FILE_PREFIX.length())))) {
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        addPath(line, files);
+                    }
+                }
+            } else {
+                addPath(arg, files);
+            }
+        }
+        return files;
+    }
+
+    private static void addPath(String path, List<String> files) throws IOException {
+        if (!new File(path).isDirectory()) {
+            files.add(path);
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(Path.of(path))) {
+            paths.filter(Files::isRegularFile)
+                    .map(Path::toString)
+                    .filter(file -> file.endsWith(FILE_FORMAT))
+                    .sorted()
+                    .forEach(files::add);
+        }
+    }
+
+    /**
+     * Validate the files and print their results.
+     *
+     * @param out the stream to print the statuses to.
+     * @param err the stream to print the error messages to.
+     * @return the aggregate status, the highest status of all the files.
+     */
+    public int run(PrintStream out, PrintStream err) {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        try {
+            List<ForkJoinTask<ValidationResult>> tasks = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                tasks.add(null);
+            }
+            // submit the largest files first, so a big file does not start last and delay the batch
+            List<Integer> bySize = IntStream.range(0, files.size()).boxed()
+                    .sorted(Comparator.comparingLong((Integer i) -> new File(files.get(i)).length()).reversed())
+                    .collect(Collectors.toList());
+            for (int i : bySize) {
+                String file = files.get(i);
+                tasks.set(i, pool.submit(() -> Sjavac.validate(file, cache, allErrors)));
+            }
+            int aggregate = ValidationResult.PASSED;
+            for (int i = 0; i < files.size(); i++) {
+                ValidationResult result = tasks.get(i).join();
+                result.print(files.get(i), allErrors, out, err);
+                aggregate = Math.max(aggregate, result.getStatus());
+            }
+            return aggregate;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
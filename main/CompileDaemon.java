@@ -0,0 +1,141 @@
+package ex5.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The CompileDaemon class keeps the compiler running and validates files on request.
+ * requests arrive on a unix domain socket, one request per connection: the client writes the path of
+ * the file in a single line, and the daemon answers with the status in one line and the error message
+ * (empty if there is none) in the next one.
+ * since the program stays alive, the line analysis and the regex patterns stay loaded and compiled
+ * between requests.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class CompileDaemon {
+    /**
+     * The line separator of the protocol.
+     */
+    static final String LINE_SEPARATOR = "\n";
+    private static final String INVALID_REQUEST = "Invalid request";
+    private static final String NOT_A_SOCKET_ERROR = "Not a socket: ";
+    private static final String DAEMON_RUNNING_ERROR = "A daemon is already running on ";
+    private static final String UNIX_MODE_ATTRIBUTE = "unix:mode";
+    private static final int FILE_TYPE_MASK = 0170000;
+    private static final int SOCKET_FILE_TYPE = 0140000;
+
+    private final Path socketPath;
+    private final ResultCache cache;
+    private Object boundSocket; // the file key of the socket this daemon bound, null before it is bound
+
+    /**
+     * The constructor of the CompileDaemon class.
+     *
+     * @param socketPath the path of the socket to listen on.
+     * @param cache      the cache of results, null to validate every file.
+     */
+    public CompileDaemon(Path socketPath, ResultCache cache) {
+        this.socketPath = socketPath;
+        this.cache = cache;
+    }
+
+    /**
+     * Listen on the socket and answer requests until the program is stopped.
+     * a socket that was left by a daemon that is no longer running is replaced, any other file is not.
+     *
+     * @throws IOException if the socket cannot be opened, the path is a file that is not a socket, or a
+     *                     daemon is running on it.
+     */
+    public void serve() throws IOException {
+        removeStaleSocket();
+        ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            boundSocket = fileKey();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::deleteSocket));
+            while (true) {
+                SocketChannel client = server.accept();
+                workers.execute(() -> answer(client));
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private void answer(SocketChannel client) {
+        try (client) {
+            BufferedReader reader = new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8));
+            String file = reader.readLine();
+            ValidationResult result;
+            if (file == null || file.isEmpty()) {
+                result = new ValidationResult(ValidationResult.GENERAL_ERROR, INVALID_REQUEST);
+            } else {
+                result = Sjavac.validate(file, cache);
+            }
+            Writer writer = Channels.newWriter(client, StandardCharsets.UTF_8);
+            writer.write(result.getStatus() + LINE_SEPARATOR);
+            writer.write((result.getMessage() == null ? "" : result.getMessage()) + LINE_SEPARATOR);
+            writer.flush();
+        } catch (IOException e) {
+            // the client went away before the answer was sent, there is no one to tell
+        }
+    }
+
+    /*
+     * delete the socket at the path only if it is a socket that no daemon answers on.
+     */
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(socketPath, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        int mode;
+        try {
+            mode = (Integer) Files.getAttribute(socketPath, UNIX_MODE_ATTRIBUTE, LinkOption.NOFOLLOW_LINKS);
+        } catch (UnsupportedOperationException e) {
+            mode = 0; // the type of the file is unknown, so it is not replaced
+        }
+        if ((mode & FILE_TYPE_MASK) != SOCKET_FILE_TYPE) {
+            throw new IOException(NOT_A_SOCKET_ERROR + socketPath);
+        }
+        boolean isRunning;
+        try (SocketChannel daemon = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            isRunning = true;
+        } catch (IOException e) {
+            isRunning = false;
+        }
+        if (isRunning) {
+            throw new IOException(DAEMON_RUNNING_ERROR + socketPath);
+        }
+        Files.delete(socketPath);
+    }
+
+    private Object fileKey() throws IOException {
+        return Files.readAttributes(socketPath, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).fileKey();
+    }
+
+    /*
+     * delete the socket when the program exits, unless another file has taken its path since.
+     */
+    private void deleteSocket() {
+        try {
+            if (boundSocket != null && boundSocket.equals(fileKey())) {
+                Files.delete(socketPath);
+            }
+        } catch (IOException e) {
+            // the program is exiting anyway
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ex5.main;
+
+import ex5.helpers.LineType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * The Java Flight Recorder events of the compiler: CompilePhaseEvent, MethodScanEvent and SlowLineEvent.
+ * loading an event class starts the flight recorder, which would slow down the start of every run, so the
+ * event classes are only used once the flight recorder was started, by a recording on the command line
+ * or by jcmd. until then every event costs a single check, so the events stay in the code of the daemon
+ * and of batch mode.
+ * a started event is null if it is not recorded, and every finish method accepts null.
+ * @author noa.farag, noya.ashkenazi
+ */
+class CompileEvents {
+    private CompileEvents() {
+    }
+
+    /**
+     * Start timing a phase.
+     *
+     * @return the started event, null if the event is not recorded.
+     */
+    static CompilePhaseEvent startPhase() {
+        return FlightRecorder.isInitialized() ? CompilePhaseEvent.start() : null;
+    }
+
+    /**
+     * End a phase.
+     *
+     * @param event the event of the phase, may be null.
+     * @param phase the name of the phase, one of the phases of CompilePhaseEvent.
+     * @param file  the path of the file, null if it was not read from a path.
+     */
+    static void finishPhase(CompilePhaseEvent event, String phase, String file) {
+        if (event != null) {
+            event.finish(phase, file);
+        }
+    }
+
+    /**
+     * Start timing the check of a method.
+     *
+     * @return the started event, null if the event is not recorded.
+     */
+    static MethodScanEvent startMethod() {
+        return FlightRecorder.isInitialized() ? MethodScanEvent.start() : null;
+    }
+
+    /**
+     * End the check of a method.
+     *
+     * @param event     the event of the method, may be null.
+     * @param method    the name of the method.
+     * @param lineCount the number of significant lines that were checked.
+     */
+    static void finishMethod(MethodScanEvent event, String method, int lineCount) {
+        if (event != null) {
+            event.finish(method, lineCount);
+        }
+    }
+
+    /**
+     * Start timing the analysis of a line.
+     *
+     * @return the started event, null if the event is not recorded.
+     */
+    static SlowLineEvent startLine() {
+        return FlightRecorder.isInitialized() ? SlowLineEvent.start() : null;
+    }
+
+    /**
+     * End the analysis of a line, the event is recorded only if it took longer than its threshold.
+     *
+     * @param event      the event of the line, may be null.
+     * @param phase      the phase that analyzed the line.
+     * @param sourceLine the line.
+     */
+    static void finishLine(SlowLineEvent event, String phase, SourceLine sourceLine) {
+        if (event != null) {
+            event.finish(phase, sourceLine.getLineNumber(), sourceLine.getTypeIfValid(), sourceLine.getText());
+        }
+    }
+}
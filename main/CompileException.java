@@ -2,15 +2,52 @@ package ex5.main;
 
 /**
  * An exception class for compile errors.
+ * a compile error is a normal result of the program and only its message is reported, so the
+ * exception does not fill in a stack trace.
+ * the scanner sets the place of the statement that caused the error before it is thrown.
  * @auther noa.farag, noya.ashkenazi
  */
 public class CompileException extends Exception {
+    private int lineNumber;
+    private int column;
+
     /**
      * The constructor of the CompileException class.
      *
      * @param message the message of the exception.
      */
     public CompileException(String message) {
-        super(message);
+        super(message, null, false, false);
+    }
+
+    /**
+     * Set the place of the error in the file, if it was not set yet.
+     *
+     * @param lineNumber the number of the line, starting from 1.
+     * @param column     the column of the statement, starting from 1.
+     */
+    public void setPosition(int lineNumber, int column) {
+        if (this.lineNumber == 0) {
+            this.lineNumber = lineNumber;
+            this.column = column;
+        }
+    }
+
+    /**
+     * Get the number of the line of the error.
+     *
+     * @return the line number, 0 if it is not known.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Get the column of the error.
+     *
+     * @return the column, 0 if it is not known.
+     */
+    public int getColumn() {
+        return column;
     }
 }
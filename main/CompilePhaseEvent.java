@@ -0,0 +1,64 @@
+package ex5.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a phase of the compilation of a file.
+ * the events are started through CompileEvents.
+ * @author noa.farag, noya.ashkenazi
+ */
+@Name("ex5.CompilePhase")
+@Label("Compile Phase")
+@Category({"S-Java", "Compiler"})
+@Description("A phase of the compilation of a file")
+@StackTrace(false)
+class CompilePhaseEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(CompilePhaseEvent.class);
+
+    static final String READ = "read";
+    static final String BRACE_CHECK = "braceCheck";
+    static final String FIRST_SCAN = "firstScan";
+    static final String FINAL_SCAN = "finalScan";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("File")
+    @Description("The path of the file, null if it was not read from a path")
+    String file;
+
+    /**
+     * Start timing a phase.
+     *
+     * @return the started event, null if the event is not recorded.
+     */
+    static CompilePhaseEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        CompilePhaseEvent event = new CompilePhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the phase, and commit the event if it is recorded.
+     *
+     * @param phase the name of the phase.
+     * @param file  the path of the file, null if it was not read from a path.
+     */
+    void finish(String phase, String file) {
+        end();
+        if (shouldCommit()) {
+            this.phase = phase;
+            this.file = file;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ex5.main;
+
+/**
+ * The result of a validation by a SjavaCompiler.
+ * adds to the status, message and errors of the file the time that every stage of the validation took.
+ * a stage that was not reached, since an earlier one failed, took no time.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class CompileResult extends ValidationResult {
+    private final long readNanos;
+    private final long firstScanNanos;
+    private final long finalScanNanos;
+    private final long totalNanos;
+
+    /**
+     * The constructor of the CompileResult class.
+     *
+     * @param result         the result of the validation.
+     * @param readNanos      the time of reading the file.
+     * @param firstScanNanos the time of the first scan.
+     * @param finalScanNanos the time of the final scan.
+     * @param totalNanos     the time of the whole validation.
+     */
+    public CompileResult(ValidationResult result, long readNanos, long firstScanNanos, long finalScanNanos,
+                         long totalNanos) {
+        super(result);
+        this.readNanos = readNanos;
+        this.firstScanNanos = firstScanNanos;
+        this.finalScanNanos = finalScanNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    /**
+     * Get the time of reading the file into its line table.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    /**
+     * Get the time of the first scan, which maps the global variables and the methods.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getFirstScanNanos() {
+        return firstScanNanos;
+    }
+
+    /**
+     * Get the time of the final scan, which checks the bodies of the methods.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getFinalScanNanos() {
+        return finalScanNanos;
+    }
+
+    /**
+     * Get the time of the whole validation.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+}
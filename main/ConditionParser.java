@@ -0,0 +1,125 @@
+package ex5.main;
+
+import ex5.helpers.InvalidLineSyntaxException;
+import ex5.models.InvalidValueException;
+import ex5.models.Literal;
+import ex5.models.Variable;
+import ex5.models.VariableType;
+
+import static ex5.helpers.RegExConstants.LEFT_BRACELET;
+import static ex5.helpers.RegExConstants.RIGHT_BRACELET;
+
+/**
+ * A parser of the condition of an if or a while line, which walks the text of the line in place.
+ * the condition is split around || and then around &&, the way String.split splits it, so a part that is
+ * empty is an error unless only empty parts follow it, and a condition of separators alone is valid.
+ * every other part is an operand, an initialized boolean, int or double variable, or a boolean, int or
+ * double value.
+ * no strings, arrays or literals are created on the way.
+ * @author noa.farag, noya.ashkenazi
+ */
+class ConditionParser {
+    private static final String CONDITION_NOT_VALID = "invalid condition";
+    private static final String INVALID_CONDITION = "Invalid condition";
+    private static final String OR = "||";
+    private static final String AND = "&&";
+
+    private ConditionParser() {
+    }
+
+    /**
+     * Check the condition of an if or a while line, the text between its first ( and its last ).
+     *
+     * @param scopeManager the scopes to look the variables up in.
+     * @param line         the line.
+     * @throws SyntaxException       if a part of the condition is empty, or is a variable that cannot be
+     *                               a condition.
+     * @throws InvalidValueException if a part of the condition is neither a variable nor a valid value.
+     */
+    static void checkCondition(ScopeManager scopeManager, String line)
+            throws SyntaxException, InvalidValueException {
+        int start = line.indexOf(LEFT_BRACELET) + 1;
+        int end = line.lastIndexOf(RIGHT_BRACELET);
+        if (end < start) {
+            throw new SyntaxException(CONDITION_NOT_VALID); // never reached by a line classified as a condition
+        }
+        boolean isEmptyPending = false;
+        int partStart = start;
+        while (true) {
+            int separator = indexOf(line, OR, partStart, end);
+            int partEnd = separator < 0 ? end : separator;
+            if (partEnd == partStart) {
+                isEmptyPending = true; // an error only if a part that is not empty follows it
+            } else {
+                if (isEmptyPending) {
+                    throw new SyntaxException(CONDITION_NOT_VALID);
+                }
+                checkAndPart(scopeManager, line, partStart, partEnd);
+            }
+            if (separator < 0) {
+                break;
+            }
+            partStart = separator + OR.length();
+        }
+        if (isEmptyPending && partStart == start) {
+            throw new SyntaxException(CONDITION_NOT_VALID); // the condition is empty
+        }
+    }
+
+    /*
+     * a part of the condition between two ||, which is not empty.
+     */
+    private static void checkAndPart(ScopeManager scopeManager, String line, int start, int end)
+            throws SyntaxException, InvalidValueException {
+        boolean isEmptyPending = false;
+        int operandStart = start;
+        while (true) {
+            int separator = indexOf(line, AND, operandStart, end);
+            int operandEnd = separator < 0 ? end : separator;
+            if (operandEnd == operandStart) {
+                isEmptyPending = true;
+            } else {
+                if (isEmptyPending) {
+                    throw new SyntaxException(CONDITION_NOT_VALID);
+                }
+                checkOperand(scopeManager, line, operandStart, operandEnd);
+            }
+            if (separator < 0) {
+                return;
+            }
+            operandStart = separator + AND.length();
+        }
+    }
+
+    private static void checkOperand(ScopeManager scopeManager, String line, int start, int end)
+            throws SyntaxException, InvalidValueException {
+        // trim the operand
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        Variable variable = scopeManager.lookupVariable(line, start, end);
+        if (variable == null) {
+            String error = Variable.valueError(VariableType.BOOLEAN, Literal.kindOf(line, start, end));
+            if (error != null) {
+                throw new InvalidValueException(error);
+            }
+            return; // the operand is a valid boolean value
+        }
+        if ((variable.getType() == VariableType.BOOLEAN || variable.getType() == VariableType.INT ||
+                variable.getType() == VariableType.DOUBLE) && variable.getIsInitialized()) {
+            return;
+        }
+        throw new InvalidLineSyntaxException(INVALID_CONDITION);
+    }
+
+    /*
+     * the first separator that lies whole between from and end, -1 if there is none.
+     */
+    private static int indexOf(String line, String separator, int from, int end) {
+        int index = line.indexOf(separator, from);
+        return index >= 0 && index + separator.length() <= end ? index : -1;
+    }
+}
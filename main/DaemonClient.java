@@ -0,0 +1,61 @@
+package ex5.main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * A thin client of the CompileDaemon.
+ * sends the absolute path of a file to the daemon and reads back the status and the error message.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class DaemonClient {
+    private static final String NO_ANSWER = "The daemon did not answer";
+
+    private final Path socketPath;
+
+    /**
+     * The constructor of the DaemonClient class.
+     *
+     * @param socketPath the path of the socket the daemon listens on.
+     */
+    public DaemonClient(Path socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    /**
+     * Ask the daemon to validate a file.
+     *
+     * @param file the path of the file, relative paths are resolved by the client.
+     * @return the result of the validation.
+     * @throws IOException if the daemon cannot be reached.
+     */
+    public ValidationResult validate(String file) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            writer.write(new File(file).getAbsolutePath() + CompileDaemon.LINE_SEPARATOR);
+            writer.flush();
+            channel.shutdownOutput();
+            BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            String status = reader.readLine();
+            String message = reader.readLine();
+            if (status == null) {
+                throw new IOException(NO_ANSWER);
+            }
+            if (message == null || message.isEmpty()) {
+                message = null;
+            }
+            try {
+                return new ValidationResult(Integer.parseInt(status), message);
+            } catch (NumberFormatException e) {
+                throw new IOException(NO_ANSWER);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ex5.main;
+
+/**
+ * A single compile error of a file, with the place in the file where it was found.
+ * the column is the first character of the statement, since the errors are found per statement.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class Diagnostic {
+    private static final String SEPARATOR = ":";
+    private static final String MESSAGE_SEPARATOR = ": ";
+
+    private final int lineNumber;
+    private final int column;
+    private final String message;
+
+    /**
+     * The constructor of the Diagnostic class.
+     *
+     * @param lineNumber the number of the line in the file, starting from 1.
+     * @param column     the column of the statement in the line, starting from 1.
+     * @param message    the error message.
+     */
+    public Diagnostic(int lineNumber, int column, String message) {
+        this.lineNumber = lineNumber;
+        this.column = column;
+        this.message = message;
+    }
+
+    /**
+     * Get the number of the line of the error.
+     *
+     * @return the line number, starting from 1.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Get the column of the error.
+     *
+     * @return the column, starting from 1.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Get the error message.
+     *
+     * @return the error message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Format the error as line:column: message.
+     *
+     * @return the formatted error.
+     */
+    @Override
+    public String toString() {
+        return lineNumber + SEPARATOR + column + MESSAGE_SEPARATOR + message;
+    }
+}
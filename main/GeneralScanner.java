@@ -1,15 +1,21 @@
 package ex5.main;
 
+import ex5.helpers.CompileStats;
+import ex5.helpers.IdentifierInterner;
 import ex5.helpers.InvalidLineSyntaxException;
 import ex5.helpers.LineAnalyzer;
 import ex5.helpers.LineType;
-import ex5.helpers.RegexHelper;
 import ex5.models.*;
 import ex5.models.InvalidValueException;
 
 import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static ex5.helpers.RegExConstants.*;
 
@@ -17,10 +23,12 @@ import static ex5.helpers.RegExConstants.*;
  * The GeneralScanner class is responsible for scanning the file for the first time and the second time.
  * The first scan is for mapping global variables and methods.
  * The second scan is for checking variable assignments and method calls.
- * The class uses the ScopeManager to keep track of the scope and the methods map to
- * keep track of the methods.
+ * The class uses the ScopeManager to keep track of the scope, and keeps the signatures of the methods
+ * by the ids of their names.
  * The class also uses the LineAnalyzer to analyze the lines of the file.
  * The class throws exceptions if there are syntax errors or logic errors.
+ * When all the errors are collected, an error is recorded as a Diagnostic and the scan goes on from the
+ * next statement, a file has errors exactly when a normal scan throws one.
  * @author noa.farag, noya.ashkenazi
  */
 public class GeneralScanner {
@@ -35,14 +43,21 @@ public class GeneralScanner {
     private static final String NESTED_METHODS_ERROR = "nested methods are not allowed";
     private static final String NO_RETURN_STATEMENT = "method has no return statement";
     private static final String METHOD_DOES_NOT_EXIST = "trying to call a method that does not exist";
-    private static final String CONDITION_NOT_VALID = "invalid condition";
     private static final String IF_WHILE_CANNOT_BE_IN_GLOBAL_SCOPE = "if and while statements cannot" +
             " be declared in global scope";
     private static final String INVALID_LINE_IN_GLOBAL_SCOPE = "Invalid statement in global scope";
+    private static final int GLOBAL_SCOPE_DEPTH = 1;
+    private static final int METHOD_SCOPE_DEPTH = 2;
+    private static final int PARALLEL_METHODS_THRESHOLD = 8;
 
     private final ScopeManager scopeManager;
     private final String file;
-    private Map<String, Method> methods;
+    private SourceFile source;
+    private final IdentifierInterner methodNames;
+    private final List<MethodSignature> signatures; // by the id of the name of the method
+    private List<MethodBody> methodBodies;
+    private List<Diagnostic> diagnostics; // null unless all the errors are collected
+    private boolean isStructureBroken;
 
 
     /**
@@ -54,7 +69,97 @@ public class GeneralScanner {
     public GeneralScanner(ScopeManager scopeManager, String file) {
         this.file = file;
         this.scopeManager = scopeManager;
-        this.methods = new HashMap<>();
+        this.methodNames = new IdentifierInterner();
+        this.signatures = new ArrayList<>();
+    }
+
+    /**
+     * A constructor of the GeneralScanner class for a file that was already read.
+     *
+     * @param scopeManager the scope manager to keep track of the scope.
+     * @param source       the lines of the file to scan.
+     */
+    public GeneralScanner(ScopeManager scopeManager, SourceFile source) {
+        this(scopeManager, (String) null);
+        this.source = source;
+    }
+
+    /**
+     * A constructor of the GeneralScanner class for a new version of a file that was already scanned,
+     * whose global lines and method declarations did not change.
+     * the global scope and the methods of the previous scanner are shared, not scanned again, so only the
+     * bodies of the methods can be checked with it.
+     *
+     * @param previous     the scanner of the previous version, after its first scan.
+     * @param source       the lines of the new version, interned into the interner of the previous one.
+     * @param methodBodies the places of the methods in the new version, with the methods of the previous one.
+     */
+    GeneralScanner(GeneralScanner previous, SourceFile source, List<MethodBody> methodBodies) {
+        this.file = previous.file;
+        this.scopeManager = previous.scopeManager;
+        this.methodNames = previous.methodNames;
+        this.signatures = previous.signatures;
+        this.source = source;
+        this.methodBodies = methodBodies;
+    }
+
+    /**
+     * A constructor of the GeneralScanner class for a file whose first scan was kept in a snapshot.
+     * the global scope and the methods are taken from the snapshot, so only the bodies of the methods can
+     * be checked with it.
+     *
+     * @param source       the lines of the file.
+     * @param globalScope  the global variables, by the ids of the interner of the file.
+     * @param methodBodies the places of the methods in the file, with the methods of the snapshot.
+     */
+    GeneralScanner(SourceFile source, SymbolTable globalScope, List<MethodBody> methodBodies) {
+        this(new ScopeManager(source.getInterner()), source);
+        scopeManager.setGlobalScope(globalScope);
+        for (MethodBody body : methodBodies) {
+            methodNames.intern(body.getMethod().getName());
+            signatures.add(body.getMethod().getSignature());
+        }
+        this.methodBodies = methodBodies;
+    }
+
+    /**
+     * Collect all the errors of the file instead of throwing the first one.
+     * the scans then record every error and go on from the next statement, an error in the curly braces
+     * or the scopes of the file stops them, since the statements cannot be placed after it.
+     */
+    public void collectAllErrors() {
+        this.diagnostics = new ArrayList<>();
+    }
+
+    /**
+     * Get the errors that were collected, in the order of the lines of the file.
+     * an error that both scans found in the same line is reported once.
+     *
+     * @return the errors, empty if none were found or the errors are not collected.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        if (diagnostics == null) {
+            return new ArrayList<>();
+        }
+        return uniqueInLineOrder(diagnostics);
+    }
+
+    /**
+     * Order errors the way getDiagnostics orders them.
+     *
+     * @param diagnostics the errors in the order they were found.
+     * @return the errors in the order of the lines, an error that was found twice in a line is kept once.
+     */
+    static List<Diagnostic> uniqueInLineOrder(List<Diagnostic> diagnostics) {
+        List<Diagnostic> unique = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Diagnostic diagnostic : diagnostics) {
+            if (seen.add(diagnostic.toString())) {
+                unique.add(diagnostic);
+            }
+        }
+        unique.sort(Comparator.comparingInt(Diagnostic::getLineNumber));
+        return unique;
     }
 
     /**
@@ -75,63 +180,177 @@ public class GeneralScanner {
      */
     public void firstFileScan() throws IOException, InvalidVariableTypeException, InvalidNameException,
             InvalidValueException, InvalidLineSyntaxException, CompileException {
-        curlyBraceHandler();
+        if (source == null) {
+            source = SourceFile.read(file, scopeManager.getInterner());
+        }
+        countLines();
+        long wallStart = CompileStats.wallTime();
+        long cpuStart = CompileStats.cpuTime();
+        CompilePhaseEvent phaseEvent = CompileEvents.startPhase();
+        try {
+            curlyBraceHandler();
+        } finally {
+            CompileStats.addPhase(CompileStats.BRACE_CHECK, wallStart, cpuStart);
+            CompileEvents.finishPhase(phaseEvent, CompilePhaseEvent.BRACE_CHECK, file);
+        }
+        wallStart = CompileStats.wallTime();
+        cpuStart = CompileStats.cpuTime();
+        phaseEvent = CompileEvents.startPhase();
+        try {
+            scanGlobals();
+        } catch (RuntimeException e) {
+            stopScans(e);
+        } finally {
+            CompileStats.addPhase(CompileStats.FIRST_SCAN, wallStart, cpuStart);
+            CompileEvents.finishPhase(phaseEvent, CompilePhaseEvent.FIRST_SCAN, file);
+        }
+    }
+
+    private void countLines() {
+        if (!CompileStats.isEnabled()) {
+            return;
+        }
+        CompileStats.countFile(source.getLineCount());
+        for (SourceLine sourceLine : source.getLines()) {
+            CompileStats.countLine(sourceLine.getTypeIfValid());
+        }
+    }
+
+    private void scanGlobals() throws CompileException {
+        if (isStructureBroken) {
+            return;
+        }
+        List<SourceLine> lines = source.getLines();
+        List<MethodBody> bodies = new ArrayList<>();
+        boolean isStructureSimple = true;
+        int methodStart = -1;
+        Method startMethod = null;
         // scan file, move line by line
-        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                if (line.isEmpty() || line.startsWith(EMPTY_LINE) ||
-                        RegexHelper.regexMatches(ONLY_SPACES, line)) { // skip empty lines and comments
-                    continue;
-                }
-                line = line.trim();
+        for (int index = 0; index < lines.size(); index++) {
+            SourceLine sourceLine = lines.get(index);
 
-                // keep tab of scope
-                if (LineAnalyzer.enteredScope(line)) {
-                    scopeManager.enterScope();
-                }
-                if (LineAnalyzer.exitedScope(line)) {
-                    scopeManager.exitScope();
-                }
+            // keep tab of scope
+            try {
+                trackScope(scopeManager, sourceLine);
+            } catch (IncorrectStructureException e) {
+                report(diagnostics, sourceLine, e);
+                isStructureBroken = true; // the scopes of the next lines are unknown
+                return;
+            }
 
+            // remember where the bodies of the methods start and end, for the final scan
+            LineType type = sourceLine.getTypeIfValid();
+            int depth = scopeManager.getScopeDepth();
+            if (depth < GLOBAL_SCOPE_DEPTH) {
+                isStructureSimple = false;
+            } else if (type == LineType.METHOD_DECLARATION && depth == METHOD_SCOPE_DEPTH && methodStart < 0) {
+                methodStart = index;
+            } else if (depth == GLOBAL_SCOPE_DEPTH && methodStart >= 0) {
+                bodies.add(new MethodBody(methodStart, index + 1, lines.get(methodStart).getLineNumber(),
+                        startMethod));
+                methodStart = -1;
+            }
 
-                // analyze line type
-                LineType type = LineAnalyzer.analyzeLine(line);
-                if ((type == LineType.IF_WHILE_CONDITION )&& scopeManager.getScopeDepth()==2) {
-                    throw new IncorrectStructureException(IF_WHILE_CANNOT_BE_IN_GLOBAL_SCOPE);
-                }
-                if ((type == LineType.METHOD_CALL || type==LineType.RETURN) && scopeManager.isGlobalScope()) {
-                    throw new IncorrectStructureException(INVALID_LINE_IN_GLOBAL_SCOPE);
-                }
+            SlowLineEvent lineEvent = CompileEvents.startLine();
+            Method method = null;
+            try {
                 if (type == LineType.METHOD_DECLARATION) {
-                    // create method object
-                    Method method = LineAnalyzer.extractMethod(line);
-                    // add method to methods map
-                    if (methods.containsKey(method.getName())) {
-                        throw new IncorrectStructureException(METHOD_NAME_ALREADY_EXISTS);
-                    }
-                    methods.put(method.getName(), method);
-                } else if (type == LineType.VARIABLE_DECLARATION && scopeManager.isGlobalScope()) {
-                    // extract variable
-                    Variable[] variables = LineAnalyzer.extractVariables(line, scopeManager::lookupVariable);
-                    // add them to the scope
-                    for (Variable variable : variables) {
-                        scopeManager.declareVariable(variable.getName(), variable);
-                    }
-                } else if (type == LineType.VARIABLE_ASSIGNMENT && scopeManager.isGlobalScope()) {
-                    checkVariableAssignment(line);
-
+                    method = LineAnalyzer.extractMethod(sourceLine.getText());
+                    declareMethod(method);
+                } else {
+                    checkGlobalLine(sourceLine);
                 }
-
+            } catch (CompileException e) {
+                report(diagnostics, sourceLine, e);
             }
-            if (scopeManager.getScopeDepth() > 1) { // check if scopes are closed
-                throw new IncorrectStructureException(SCOPE_NOT_CLOSED);
+            if (index == methodStart) {
+                startMethod = method; // kept even if its name is taken, the body is still checked
+            }
+            CompileEvents.finishLine(lineEvent, CompilePhaseEvent.FIRST_SCAN, sourceLine);
+        }
+        if (scopeManager.getScopeDepth() > 1) { // check if scopes are closed
+            reportEndOfFile(new IncorrectStructureException(SCOPE_NOT_CLOSED));
+            return;
+        }
+        if (isStructureSimple && scopeManager.getScopeDepth() == GLOBAL_SCOPE_DEPTH &&
+                scopeManager.getInterner() == source.getInterner()) {
+            // every method is closed before the next one starts, so the methods can be checked separately.
+            // the names of the file are all interned, so the threads only read the interner
+            methodBodies = bodies;
+        }
+
+    }
+
+    private void checkGlobalLine(SourceLine sourceLine) throws CompileException {
+        String line = sourceLine.getText();
+
+        // analyze line type
+        LineType type = sourceLine.getType();
+
+        if ((type == LineType.IF_WHILE_CONDITION )&& scopeManager.getScopeDepth()==2) {
+            throw new IncorrectStructureException(IF_WHILE_CANNOT_BE_IN_GLOBAL_SCOPE);
+        }
+        if ((type == LineType.METHOD_CALL || type==LineType.RETURN) && scopeManager.isGlobalScope()) {
+            throw new IncorrectStructureException(INVALID_LINE_IN_GLOBAL_SCOPE);
+        }
+        if (type == LineType.VARIABLE_DECLARATION && scopeManager.isGlobalScope()) {
+            // extract variable
+            Variable[] variables = LineAnalyzer.extractVariables(line, scopeManager::lookupVariable);
+            // add them to the scope
+            for (Variable variable : variables) {
+                scopeManager.declareVariable(variable.getName(), variable);
             }
+        } else if (type == LineType.VARIABLE_ASSIGNMENT && scopeManager.isGlobalScope()) {
+            checkVariableAssignment(scopeManager, line);
+
+        }
+    }
+
+    private void declareMethod(Method method) throws IncorrectStructureException {
+        if (methodNames.idOf(method.getName()) != IdentifierInterner.NOT_INTERNED) {
+            throw new IncorrectStructureException(METHOD_NAME_ALREADY_EXISTS);
+        }
+        methodNames.intern(method.getName());
+        signatures.add(method.getSignature());
+    }
+
+    /*
+     * throw an error, or record it when all the errors are collected.
+     */
+    private static void report(List<Diagnostic> diagnostics, SourceLine sourceLine, CompileException error)
+            throws CompileException {
+        if (diagnostics == null) {
+            error.setPosition(sourceLine.getLineNumber(), sourceLine.getColumn());
+            throw error;
+        }
+        diagnostics.add(new Diagnostic(sourceLine.getLineNumber(), sourceLine.getColumn(), error.getMessage()));
+    }
+
+    /*
+     * an error of the structure of the whole file is placed at its last line, and ends the scans.
+     */
+    private void reportEndOfFile(IncorrectStructureException error) throws IncorrectStructureException {
+        if (diagnostics == null) {
+            error.setPosition(Math.max(source.getLineCount(), 1), 1);
+            throw error;
         }
+        diagnostics.add(new Diagnostic(Math.max(source.getLineCount(), 1), 1, error.getMessage()));
+        isStructureBroken = true;
+    }
 
+    /*
+     * a failure that is not a compile error ends the scans. when errors were already collected, a normal
+     * scan would have stopped at the first of them, so they are reported and the failure is not.
+     */
+    private void stopScans(RuntimeException failure) {
+        if (diagnostics == null || diagnostics.isEmpty()) {
+            throw failure;
+        }
+        isStructureBroken = true;
     }
 
-    private void checkVariableAssignment(String line) throws InvalidValueException, SyntaxException {
+    private void checkVariableAssignment(ScopeManager scopeManager, String line)
+            throws InvalidValueException, SyntaxException {
         line = line.trim().substring(0, line.length() - 1);
         String[] assignments = line.split(COMMA_REGEX);
         for (String assignment : assignments) {
@@ -141,122 +360,151 @@ public class GeneralScanner {
             }
             String name = parts[0].trim();
             String value = parts[1].trim();
-            Variable variable = scopeManager.lookupVariable(name);
+            Variable variable = scopeManager.lookupVariableForWrite(name);
             if (variable == null) {
                 throw new SyntaxException(VARIABLE_NOT_DECLARED);
             }
             if (variable.isFinal()) {
                 throw new SyntaxException(CANNOT_ASSIGN_FINAL);
             }
-            if (scopeManager.lookupVariable(value) != null) {
-                if (!scopeManager.lookupVariable(value).getIsInitialized()) {
+            Variable valueVariable = scopeManager.lookupVariable(value);
+            if (valueVariable != null) {
+                if (!valueVariable.getIsInitialized()) {
                     throw new SyntaxException(VARIABLE_NOT_INITIATED);
                 }
-                value = scopeManager.lookupVariable(value).getValue();
+                variable.changeValue(valueVariable.getValue());
+            } else {
+                variable.changeValue(value);
             }
-            variable.changeValue(value);
         }
     }
 
 
-    private void scanMethod(BufferedReader bufferedReader, Method method) throws IOException,
-            InvalidVariableTypeException, InvalidNameException, InvalidValueException,
-            InvalidLineSyntaxException, CompileException {
+    private static void trackScope(ScopeManager scopeManager, SourceLine sourceLine)
+            throws IncorrectStructureException {
+        if (sourceLine.getScopeDelta() > 0) {
+            scopeManager.enterScope();
+        }
+        if (sourceLine.getScopeDelta() < 0) {
+            scopeManager.exitScope();
+        }
+    }
+
+    private int scanMethod(ScopeManager scopeManager, int start, int end, List<Diagnostic> diagnostics)
+            throws CompileException {
+        List<SourceLine> lines = source.getLines();
         int methodScope = scopeManager.getScopeDepth();
-        String line;
+        int index = start;
         String previousLine = "";
         String prePreLine = "";
-        HashMap<String, Variable> globalVariablesCopy = new HashMap<>();
-        for (Map.Entry<String, Variable> entry : scopeManager.getGlobalScope().entrySet()) {
-            Variable variable = new Variable(entry.getValue());
-            globalVariablesCopy.put(entry.getKey(), variable);
-        }
-        while (scopeManager.getScopeDepth() >= methodScope && (line = bufferedReader.readLine()) != null) {
-            if (line.isEmpty() || line.startsWith(EMPTY_LINE) ||
-                    RegexHelper.regexMatches(ONLY_SPACES, line)) { // skip empty lines and comments
-                continue;
-            }
-            line = line.trim();
-            // keep tab of scope
-            if (LineAnalyzer.enteredScope(line)) {
-                scopeManager.enterScope();
-            }
-            if (LineAnalyzer.exitedScope(line)) {
-                scopeManager.exitScope();
-            }
+        // the method is exited by its last line, so its name is kept before
+        String methodName = scopeManager.getCurrentMethod().getName();
+        MethodScanEvent methodEvent = CompileEvents.startMethod();
+        while (scopeManager.getScopeDepth() >= methodScope && index < end) {
+            SourceLine sourceLine = lines.get(index++);
+            String line = sourceLine.getText();
+            SlowLineEvent lineEvent = CompileEvents.startLine();
+            try {
+                // keep tab of scope
+                trackScope(scopeManager, sourceLine);
 
-            LineType type = LineAnalyzer.analyzeLine(line);
-            if (type == LineType.METHOD_DECLARATION) {
-                throw new IncorrectStructureException(NESTED_METHODS_ERROR);
-                // custom exception
-            } else if (type == LineType.IF_WHILE_CONDITION) {
-                checkIfWhileStatement(line);
-            } else if (type == LineType.METHOD_CALL) {
-                checkMethodCall(line);
-            } else if (type == LineType.RETURN) {
-
-
-            } else if (type == LineType.VARIABLE_ASSIGNMENT) {
-                checkVariableAssignment(line);
-
-            } else if (type == LineType.VARIABLE_DECLARATION) {
-                // extract variable
-                Variable[] variables = LineAnalyzer.extractVariables(line, scopeManager::lookupVariable);
-                // add them to the scope
-                for (Variable variable : variables) {
-                    scopeManager.declareVariable(variable.getName(), variable);
+                LineType type = sourceLine.getType();
+                if (type == LineType.METHOD_DECLARATION) {
+                    throw new IncorrectStructureException(NESTED_METHODS_ERROR);
+                    // custom exception
+                } else if (type == LineType.IF_WHILE_CONDITION) {
+                    checkIfWhileStatement(scopeManager, line);
+                } else if (type == LineType.METHOD_CALL) {
+                    checkMethodCall(scopeManager, line);
+                } else if (type == LineType.RETURN) {
+
+
+                } else if (type == LineType.VARIABLE_ASSIGNMENT) {
+                    checkVariableAssignment(scopeManager, line);
+
+                } else if (type == LineType.VARIABLE_DECLARATION) {
+                    // extract variable
+                    Variable[] variables = LineAnalyzer.extractVariables(line, scopeManager::lookupVariable);
+                    // add them to the scope
+                    for (Variable variable : variables) {
+                        scopeManager.declareVariable(variable.getName(), variable);
+                    }
                 }
+            } catch (CompileException e) {
+                report(diagnostics, sourceLine, e);
             }
+            CompileEvents.finishLine(lineEvent, CompilePhaseEvent.FINAL_SCAN, sourceLine);
             prePreLine = previousLine;
             previousLine = line;
         }
         if (!LineAnalyzer.isReturnStatement(prePreLine)) {
             // if we reached here, the method has no return statement
-            throw new IncorrectStructureException(NO_RETURN_STATEMENT);
+            report(diagnostics, lines.get(index - 1), new IncorrectStructureException(NO_RETURN_STATEMENT));
         }
-        // reset global variables
-        scopeManager.setGlobalScope(globalVariablesCopy);
+        CompileEvents.finishMethod(methodEvent, methodName, index - start);
+        return index;
+    }
 
+    /*
+     * move over the body of a method that could not be entered, only keeping tab of the scope.
+     */
+    private int skipMethod(ScopeManager scopeManager, int start, int end) throws IncorrectStructureException {
+        List<SourceLine> lines = source.getLines();
+        int methodScope = scopeManager.getScopeDepth();
+        int index = start;
+        while (scopeManager.getScopeDepth() >= methodScope && index < end) {
+            trackScope(scopeManager, lines.get(index++));
+        }
+        return index;
     }
 
-    private void checkMethodCall(String line) throws CompileException {
-        // extract method name
-        String name = line.split(RIGHT_BRACELET_REGEX )[0].trim();
-        // check if method exists
-        if (!methods.containsKey(name)) {
-            throw new SyntaxException(METHOD_DOES_NOT_EXIST);
+    /*
+     * enter the method of a declaration line. when the errors are collected, a method that cannot be
+     * extracted is not entered and false is returned, so its body is skipped.
+     */
+    private static boolean enterMethod(ScopeManager scopeManager, SourceLine declaration,
+                                       List<Diagnostic> diagnostics) throws CompileException {
+        Method method;
+        try {
+            method = LineAnalyzer.extractMethod(declaration.getText());
+        } catch (CompileException e) {
+            report(diagnostics, declaration, e);
+            return false;
+        }
+        enterMethod(scopeManager, declaration, method, diagnostics);
+        return true;
+    }
 
+    private static void enterMethod(ScopeManager scopeManager, SourceLine declaration, Method method,
+                                    List<Diagnostic> diagnostics) throws CompileException {
+        try {
+            scopeManager.enterMethod(method);
+        } catch (CompileException e) {
+            report(diagnostics, declaration, e); // the parameters before the invalid one are declared
         }
-        // extract method arguments
-        String[] arguments = line.substring(line.indexOf(LEFT_BRACELET) + 1,
-                line.lastIndexOf(RIGHT_BRACELET)).trim().split(COMMA_REGEX);
-        for (int i = 0; i < arguments.length; i++) {
-            arguments[i] = arguments[i].trim();
+    }
+
+    private void checkMethodCall(ScopeManager scopeManager, String line) throws CompileException {
+        // the name is the word before the first (, the line is trimmed
+        int open = line.indexOf(LEFT_BRACELET);
+        int nameEnd = open;
+        while (nameEnd > 0 && line.charAt(nameEnd - 1) <= ' ') {
+            nameEnd--;
         }
-        if (arguments.length == 1 && arguments[0].isEmpty()) {
-            arguments = new String[0];
+        int id = methodNames.idOf(line, 0, nameEnd);
+        // check if method exists
+        if (id == IdentifierInterner.NOT_INTERNED) {
+            throw new SyntaxException(METHOD_DOES_NOT_EXIST);
+
         }
-        // assert the arguments match the method signature
-        Method method = methods.get(name);
-        method.assertArguments(arguments, scopeManager::lookupVariable);
+        // assert the arguments match the method signature, in place
+        MethodCallParser.checkArguments(scopeManager, signatures.get(id), line, open + 1,
+                line.lastIndexOf(RIGHT_BRACELET));
     }
 
-    private void checkIfWhileStatement(String line) throws SyntaxException, InvalidValueException {
-        int startIndex = line.indexOf(LEFT_BRACELET);
-        int endIndex = line.lastIndexOf(RIGHT_BRACELET);
-        String condition = line.substring(startIndex + 1, endIndex);
-        String[] conditionParts = condition.split(OR_CONDITION_REGEX);
-        for (String part : conditionParts) {
-            String[] subParts = part.split(AND_CONDITION_REGEX);
-            for (String subPart : subParts) {
-                if (subPart.isEmpty()) {
-                    throw new SyntaxException(CONDITION_NOT_VALID);
-                } else {
-                    subPart = subPart.trim();
-                    LineAnalyzer.conditionAnalyzer(subPart, scopeManager::lookupVariable);
-                }
-            }
-        }
+    private void checkIfWhileStatement(ScopeManager scopeManager, String line)
+            throws SyntaxException, InvalidValueException {
+        ConditionParser.checkCondition(scopeManager, line);
     }
 
     /**
@@ -267,54 +515,205 @@ public class GeneralScanner {
      * @throws FileNotFoundException if the file is not found.
      */
     public void finalFileScan() throws IOException, CompileException {
-        try (BufferedReader bufferedReader = new BufferedReader((new FileReader(file)))) {
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                if (line.isEmpty() || line.startsWith(EMPTY_LINE) ||
-                        RegexHelper.regexMatches(ONLY_SPACES, line)) { // skip empty lines and comments
-                    continue;
-                }
-                line = line.trim();
-                if (LineAnalyzer.enteredScope(line)) {
-                    scopeManager.enterScope();
-                }
-                if (LineAnalyzer.exitedScope(line)) {
-                    scopeManager.exitScope();
-                }
-                // analyze line type
-                LineType type = LineAnalyzer.analyzeLine(line);
-                if (type == LineType.METHOD_DECLARATION) {
+        if (source == null) {
+            source = SourceFile.read(file, scopeManager.getInterner());
+        }
+        long wallStart = CompileStats.wallTime();
+        long cpuStart = CompileStats.cpuTime();
+        CompilePhaseEvent phaseEvent = CompileEvents.startPhase();
+        try {
+            scanMethods();
+        } catch (RuntimeException e) {
+            stopScans(e);
+        } finally {
+            CompileStats.addPhase(CompileStats.FINAL_SCAN, wallStart, cpuStart);
+            CompileEvents.finishPhase(phaseEvent, CompilePhaseEvent.FINAL_SCAN, file);
+        }
+    }
 
-                    Method method = LineAnalyzer.extractMethod(line);
-                    scopeManager.enterMethod(method);
-                    scanMethod(bufferedReader, method);
+    private void scanMethods() throws CompileException {
+        if (isStructureBroken) {
+            return; // the statements cannot be placed in their methods
+        }
+        if (methodBodies != null) {
+            verifyMethodBodies();
+            return;
+        }
+        List<SourceLine> lines = source.getLines();
+        int index = 0;
+        while (index < lines.size()) {
+            SourceLine sourceLine = lines.get(index++);
+            try {
+                trackScope(scopeManager, sourceLine);
+            } catch (IncorrectStructureException e) {
+                // only reached after an earlier error, the scopes after this line are unknown
+                report(diagnostics, sourceLine, e);
+                return;
+            }
+            // analyze line type, an invalid line was already reported by the first scan
+            LineType type = sourceLine.getTypeIfValid();
+            if (type == LineType.METHOD_DECLARATION) {
 
+                if (!enterMethod(scopeManager, sourceLine, diagnostics)) {
+                    index = skipMethod(scopeManager, index, lines.size());
+                    continue;
                 }
+                index = scanMethod(scopeManager, index, lines.size(), diagnostics);
+                // reset global variables
+                scopeManager.discardGlobalWrites();
+
             }
         }
 
     }
 
-    private void curlyBraceHandler() throws IOException, IncorrectStructureException {
-        int curlyBraceCount = 0;
-        // scan file, move line by line
-        try (BufferedReader bufferedReader = new BufferedReader((new FileReader(file)))) {
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                line = line.replaceAll(STRING_EXPRESSION, "");
-                for (char c : line.toCharArray()) {
-                    if (c == LEFT_CURLY_BRACE.charAt(0)) {
-                        curlyBraceCount++;
-                    }
-                    if (c == RIGHT_CURLY_BRACE.charAt(0)) {
-                        curlyBraceCount--;
-                    }
-                }
+    /*
+     * check every method body on its own, against the global scope as the first scan left it.
+     * the bodies are found in the index of the first scan, with the methods it parsed from their
+     * declarations, so the global lines and the declarations are not analyzed again.
+     * when there are enough methods they are checked in parallel, and the error that is thrown is the
+     * one of the first method in the file, as a sequential scan would throw.
+     * when the errors are collected, every method collects its own errors and they are added in the
+     * order of the methods.
+     */
+    private void verifyMethodBodies() throws CompileException {
+        SymbolTable globalScope = scopeManager.getGlobalScope();
+        int count = methodBodies.size();
+        Exception[] failures = new Exception[count];
+        List<List<Diagnostic>> found = null;
+        if (diagnostics != null) {
+            found = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                found.add(new ArrayList<>());
             }
-            if (curlyBraceCount != 0) {
-                throw new IncorrectStructureException(SCOPE_NOT_CLOSED);
-
+        }
+        List<List<Diagnostic>> methodDiagnostics = found;
+        Thread caller = Thread.currentThread(); // its cpu time is counted by finalFileScan
+        AtomicInteger firstFailure = new AtomicInteger(count);
+        IntStream indices = IntStream.range(0, count);
+        if (count >= PARALLEL_METHODS_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> {
+            if (i > firstFailure.get()) {
+                return; // an earlier method already failed, its error is the one to report
+            }
+            long cpuStart = CompileStats.cpuTime();
+            try {
+                verifyMethodBody(methodBodies.get(i), globalScope,
+                        methodDiagnostics == null ? null : methodDiagnostics.get(i));
+            } catch (CompileException | RuntimeException e) {
+                failures[i] = e;
+                firstFailure.accumulateAndGet(i, Math::min);
             }
+            if (Thread.currentThread() != caller) {
+                CompileStats.addPhaseCpu(CompileStats.FINAL_SCAN, cpuStart);
+            }
+        });
+        int first = firstFailure.get();
+        if (methodDiagnostics != null) {
+            for (int i = 0; i < count && i <= first; i++) {
+                diagnostics.addAll(methodDiagnostics.get(i));
+            }
+        }
+        if (first < count) {
+            if (failures[first] instanceof CompileException) {
+                throw (CompileException) failures[first];
+            }
+            throw (RuntimeException) failures[first];
+        }
+    }
+
+    /**
+     * Get the global variables as the first scan left them.
+     *
+     * @return the global scope.
+     */
+    SymbolTable getGlobalScope() {
+        return scopeManager.getGlobalScope();
+    }
+
+    /**
+     * Get the number of the methods that the first scan declared.
+     *
+     * @return the number of the methods.
+     */
+    int getMethodCount() {
+        return signatures.size();
+    }
+
+    /**
+     * Get the places of the methods that the first scan found.
+     *
+     * @return the bodies of the methods in the order of the file, null if they cannot be checked
+     * separately.
+     */
+    List<MethodBody> getMethodBodies() {
+        return methodBodies;
+    }
+
+    /**
+     * Get a global variable as the first scan left it, by a name that is a part of a text.
+     *
+     * @param text  the text that holds the name.
+     * @param start the index of the first character of the name.
+     * @param end   the index after the last character of the name.
+     * @return the global variable, null if there is none with the name.
+     */
+    Variable getGlobalVariable(String text, int start, int end) {
+        int id = scopeManager.getInterner().idOf(text, start, end);
+        return id == IdentifierInterner.NOT_INTERNED ? null : scopeManager.getGlobalScope().get(id);
+    }
+
+    /**
+     * Get the signature of a method, by a name that is a part of a text.
+     *
+     * @param text  the text that holds the name.
+     * @param start the index of the first character of the name.
+     * @param end   the index after the last character of the name.
+     * @return the signature of the method, null if there is no method with the name.
+     */
+    MethodSignature getSignature(String text, int start, int end) {
+        int id = methodNames.idOf(text, start, end);
+        return id == IdentifierInterner.NOT_INTERNED ? null : signatures.get(id);
+    }
+
+    /**
+     * Check the body of a single method against the global scope, and collect all of its errors.
+     * the errors are in the order they were found, and the same error may be found twice in a line.
+     *
+     * @param index the index of the method in the bodies of the methods.
+     * @return the errors of the method, empty if it is legal.
+     */
+    List<Diagnostic> checkMethodBody(int index) {
+        List<Diagnostic> found = new ArrayList<>();
+        try {
+            verifyMethodBody(methodBodies.get(index), scopeManager.getGlobalScope(), found);
+        } catch (CompileException e) {
+            throw new IllegalStateException(e); // the errors are collected, never thrown
+        }
+        return found;
+    }
+
+    private void verifyMethodBody(MethodBody body, SymbolTable globalScope, List<Diagnostic> diagnostics)
+            throws CompileException {
+        ScopeManager methodScopeManager = new ScopeManager(scopeManager.getInterner());
+        methodScopeManager.setGlobalScope(globalScope);
+        methodScopeManager.enterScope();
+        if (body.getMethod() == null) {
+            return; // the declaration is invalid, it was reported by the first scan
+        }
+        SourceLine declaration = source.getLines().get(body.getDeclarationIndex());
+        // the method of the first scan is shared by all the threads, its parameters are initialized on a copy
+        enterMethod(methodScopeManager, declaration, new Method(body.getMethod()), diagnostics);
+        scanMethod(methodScopeManager, body.getDeclarationIndex() + 1, body.getEndIndex(), diagnostics);
+    }
+
+    private void curlyBraceHandler() throws IncorrectStructureException {
+        // the curly braces were counted when the file was read
+        if (!source.isCurlyBraceBalanced()) {
+            reportEndOfFile(new IncorrectStructureException(SCOPE_NOT_CLOSED));
+
         }
 
     }
@@ -0,0 +1,420 @@
+package ex5.main;
+
+import ex5.helpers.IdentifierInterner;
+import ex5.helpers.InvalidLineSyntaxException;
+import ex5.helpers.LineType;
+import ex5.models.Method;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The IncrementalFile class validates a file again every time it changes, and keeps what it can of the
+ * previous validation.
+ * after a full scan it keeps the line table of the file, the scanner with its global scope and methods,
+ * and the errors of every method body: the invalid lines that the first scan finds in it, and the errors
+ * of checking it.
+ * when a new version of the file has the same global lines and method declarations, the first scan is
+ * not run again and only the bodies that changed are checked, the errors of the other bodies are moved
+ * to their new lines. the errors are put together in the order the scans report them, so the result is
+ * the one of a full validation.
+ * a file with an error outside the bodies of its methods, or whose methods cannot be checked separately,
+ * is scanned in full every time.
+ * with a MethodResultCache, a full scan takes the errors of the methods whose keys did not change from
+ * the cache, and every validation stores the errors of the methods of the file in it. the cache also
+ * keeps a ScanSnapshot of the first scan, so a file whose global lines did not change since it was
+ * last scanned skips the first scan and only checks its methods.
+ * @author noa.farag, noya.ashkenazi
+ */
+class IncrementalFile {
+    private static final int GLOBAL_SCOPE_DEPTH = 1;
+    private static final int METHOD_SCOPE_DEPTH = 2;
+
+    private final String path;
+    private final boolean allErrors;
+    private final MethodResultCache methodCache;
+    private SourceFile source;
+    private GeneralScanner scanner; // null when the next version must be scanned in full
+    private List<List<Diagnostic>> lineErrors; // the invalid lines of every method body
+    private List<List<Diagnostic>> methodErrors; // the errors of checking every method body
+    private List<String> methodKeys; // the keys of the methods in the cache, null without a cache
+
+    /*
+     * reads a version of the file, interning its words into the interner of the previous version.
+     */
+    private interface VersionReader {
+        SourceFile read(IdentifierInterner interner) throws IOException;
+    }
+
+    /**
+     * The constructor of the IncrementalFile class.
+     *
+     * @param path      the path of the file.
+     * @param allErrors true to collect all the errors of the file, false to stop at the first one.
+     */
+    IncrementalFile(String path, boolean allErrors) {
+        this(path, allErrors, null);
+    }
+
+    /**
+     * A constructor of the IncrementalFile class that keeps the errors of the methods on disk.
+     *
+     * @param path        the path of the file.
+     * @param allErrors   true to collect all the errors of the file, false to stop at the first one.
+     * @param methodCache the cache of the errors of the methods, null to keep them only in memory.
+     */
+    IncrementalFile(String path, boolean allErrors, MethodResultCache methodCache) {
+        this.path = path;
+        this.allErrors = allErrors;
+        this.methodCache = methodCache;
+    }
+
+    /**
+     * Validate the current version of the file.
+     *
+     * @return the result of the validation, the same as the one of Sjavac.validate.
+     */
+    ValidationResult validate() {
+        return validate(interner -> SourceFile.read(path, interner));
+    }
+
+    /**
+     * Validate a version of the file that was already read.
+     *
+     * @param content the bytes of the file.
+     * @return the result of the validation, the same as the one of Sjavac.validate.
+     */
+    ValidationResult validate(byte[] content) {
+        return validate(interner -> SourceFile.read(content, interner));
+    }
+
+    private ValidationResult validate(VersionReader reader) {
+        GeneralScanner previous = scanner;
+        scanner = null; // kept again only if this version is scanned
+        return Sjavac.report(() -> {
+            Sjavac.checkSjavaFileName(path);
+            IdentifierInterner interner = previous == null ? new IdentifierInterner() : source.getInterner();
+            SourceFile next = reader.read(interner);
+            if (previous != null && update(previous, next)) {
+                return result();
+            }
+            return scanAll(next);
+        });
+    }
+
+    /*
+     * scan the whole file, and keep the scans if the methods can be checked again one by one.
+     */
+    private ValidationResult scanAll(SourceFile next) throws Exception {
+        try {
+            List<MethodBody> found = methodCache == null ? null : findBodies(next);
+            String snapshotKey = found == null ? null : methodCache.snapshotKeyOf(next, found);
+            List<MethodBody> bodies = found;
+            ScanSnapshot snapshot = snapshotKey == null ? null :
+                    methodCache.loadSnapshot(snapshotKey, next.getInterner());
+            GeneralScanner first;
+            List<List<Diagnostic>> invalidLines = null;
+            if (snapshot != null && snapshot.getMethods().size() == bodies.size()) {
+                bodies = withMethods(bodies, snapshot.getMethods());
+                invalidLines = invalidLines(next, bodies);
+            }
+            if (invalidLines != null) {
+                first = new GeneralScanner(next, snapshot.getGlobalScope(), bodies);
+            } else {
+                first = new GeneralScanner(new ScopeManager(next.getInterner()), next);
+                first.collectAllErrors();
+                first.firstFileScan();
+                bodies = first.getMethodBodies();
+                invalidLines = bodies == null ? null : invalidLines(next, bodies);
+                // every error of the first scan must be an invalid line of a body
+                if (invalidLines == null || count(invalidLines) != first.getDiagnostics().size()) {
+                    invalidLines = null;
+                } else if (snapshotKey != null && first.getMethodCount() == bodies.size() &&
+                        isSamePlaces(found, bodies)) {
+                    methodCache.storeSnapshot(snapshotKey, new ScanSnapshot(first.getGlobalScope(),
+                            methodsOf(bodies)));
+                }
+            }
+            if (invalidLines != null) {
+                Map<String, List<Diagnostic>> stored = methodCache == null ? Map.of() : methodCache.load(path);
+                boolean isAllStored = stored.size() == bodies.size();
+                List<List<Diagnostic>> errors = new ArrayList<>(bodies.size());
+                List<String> keys = methodCache == null ? null : new ArrayList<>(bodies.size());
+                for (int i = 0; i < bodies.size(); i++) {
+                    String key = methodCache == null ? null : methodCache.keyOf(first, next, bodies.get(i));
+                    List<Diagnostic> storedErrors = key == null ? null : stored.get(key);
+                    isAllStored &= storedErrors != null;
+                    errors.add(storedErrors == null ? first.checkMethodBody(i) :
+                            shift(storedErrors, bodies.get(i).getLineNumber()));
+                    if (keys != null) {
+                        keys.add(key);
+                    }
+                }
+                keep(next, first, invalidLines, errors, keys);
+                if (!isAllStored) {
+                    storeMethods();
+                }
+                return result();
+            }
+        } catch (RuntimeException e) {
+            // the file is validated below, which reports the failure the way a single run does
+        }
+        Sjavac sjavacManager = new Sjavac(path);
+        if (allErrors) {
+            return new ValidationResult(sjavacManager.runAllErrors(next));
+        }
+        sjavacManager.run(next);
+        return new ValidationResult(ValidationResult.PASSED, null);
+    }
+
+    /*
+     * check only the bodies that changed since the previous version, false if the global lines or the
+     * declarations changed.
+     */
+    private boolean update(GeneralScanner previous, SourceFile next) {
+        List<MethodBody> previousBodies = previous.getMethodBodies();
+        List<MethodBody> bodies = findBodies(next);
+        if (bodies == null || bodies.size() != previousBodies.size()) {
+            return false;
+        }
+        bodies = withMethods(bodies, methodsOf(previousBodies));
+        List<SourceLine> previousLines = source.getLines();
+        List<SourceLine> lines = next.getLines();
+        // the lines between the methods, each with the declaration after it
+        int previousFrom = 0;
+        int from = 0;
+        for (int i = 0; i <= bodies.size(); i++) {
+            int previousTo = i < bodies.size() ? previousBodies.get(i).getDeclarationIndex() + 1 :
+                    previousLines.size();
+            int to = i < bodies.size() ? bodies.get(i).getDeclarationIndex() + 1 : lines.size();
+            if (!isSameLines(previousLines, previousFrom, previousTo, lines, from, to, false)) {
+                return false;
+            }
+            if (i < bodies.size()) {
+                previousFrom = previousBodies.get(i).getEndIndex();
+                from = bodies.get(i).getEndIndex();
+            }
+        }
+        List<List<Diagnostic>> invalidLines = new ArrayList<>(bodies.size());
+        boolean[] isChanged = new boolean[bodies.size()];
+        for (int i = 0; i < bodies.size(); i++) {
+            MethodBody previousBody = previousBodies.get(i);
+            MethodBody body = bodies.get(i);
+            isChanged[i] = !isSameLines(previousLines, previousBody.getDeclarationIndex(),
+                    previousBody.getEndIndex(), lines, body.getDeclarationIndex(), body.getEndIndex(), true);
+            int shift = body.getLineNumber() - previousBody.getLineNumber();
+            List<Diagnostic> invalid = isChanged[i] ? invalidLines(next, body) : shift(lineErrors.get(i), shift);
+            if (invalid == null) {
+                return false;
+            }
+            invalidLines.add(invalid);
+        }
+        GeneralScanner updated = new GeneralScanner(previous, next, bodies);
+        List<List<Diagnostic>> errors = new ArrayList<>(bodies.size());
+        List<String> keys = methodKeys == null ? null : new ArrayList<>(methodKeys);
+        try {
+            for (int i = 0; i < bodies.size(); i++) {
+                errors.add(isChanged[i] ? updated.checkMethodBody(i) : shift(methodErrors.get(i),
+                        bodies.get(i).getLineNumber() - previousBodies.get(i).getLineNumber()));
+                if (keys != null && isChanged[i]) {
+                    keys.set(i, methodCache.keyOf(updated, next, bodies.get(i)));
+                }
+            }
+        } catch (RuntimeException e) {
+            return false; // scanned in full, which reports the failure
+        }
+        keep(next, updated, invalidLines, errors, keys);
+        storeMethods();
+        return true;
+    }
+
+    private void keep(SourceFile next, GeneralScanner nextScanner, List<List<Diagnostic>> invalidLines,
+                      List<List<Diagnostic>> errors, List<String> keys) {
+        source = next;
+        scanner = nextScanner;
+        lineErrors = invalidLines;
+        methodErrors = errors;
+        methodKeys = keys;
+    }
+
+    /*
+     * store the errors of the methods in the cache, with their lines relative to their declarations.
+     */
+    private void storeMethods() {
+        if (methodCache == null) {
+            return;
+        }
+        List<MethodBody> bodies = scanner.getMethodBodies();
+        List<List<Diagnostic>> relative = new ArrayList<>(bodies.size());
+        for (int i = 0; i < bodies.size(); i++) {
+            relative.add(shift(methodErrors.get(i), -bodies.get(i).getLineNumber()));
+        }
+        methodCache.store(path, methodKeys, relative);
+    }
+
+    /*
+     * the errors of the methods, in the order the scans report them: the invalid lines first, since the
+     * first scan stops at them, then the errors of the methods in the order of the file.
+     */
+    private ValidationResult result() {
+        if (allErrors) {
+            List<Diagnostic> all = new ArrayList<>();
+            lineErrors.forEach(all::addAll);
+            methodErrors.forEach(all::addAll);
+            return new ValidationResult(GeneralScanner.uniqueInLineOrder(all));
+        }
+        for (List<List<Diagnostic>> errors : List.of(lineErrors, methodErrors)) {
+            for (List<Diagnostic> methodDiagnostics : errors) {
+                if (!methodDiagnostics.isEmpty()) {
+                    return new ValidationResult(List.of(methodDiagnostics.get(0)));
+                }
+            }
+        }
+        return new ValidationResult(ValidationResult.PASSED, null);
+    }
+
+    /*
+     * the bodies of the methods the way the first scan finds them, without their methods, null if a
+     * method is not closed before the next one starts or a scope is closed twice.
+     */
+    private static List<MethodBody> findBodies(SourceFile next) {
+        if (!next.isCurlyBraceBalanced()) {
+            return null;
+        }
+        List<SourceLine> lines = next.getLines();
+        List<MethodBody> bodies = new ArrayList<>();
+        int depth = GLOBAL_SCOPE_DEPTH;
+        int methodStart = -1;
+        for (int index = 0; index < lines.size(); index++) {
+            depth += lines.get(index).getScopeDelta();
+            LineType type = lines.get(index).getTypeIfValid();
+            if (depth < GLOBAL_SCOPE_DEPTH) {
+                return null;
+            } else if (type == LineType.METHOD_DECLARATION && depth == METHOD_SCOPE_DEPTH && methodStart < 0) {
+                methodStart = index;
+            } else if (depth == GLOBAL_SCOPE_DEPTH && methodStart >= 0) {
+                bodies.add(new MethodBody(methodStart, index + 1, lines.get(methodStart).getLineNumber(),
+                        null));
+                methodStart = -1;
+            }
+        }
+        return depth == GLOBAL_SCOPE_DEPTH ? bodies : null;
+    }
+
+    private static boolean isSamePlaces(List<MethodBody> found, List<MethodBody> bodies) {
+        if (found.size() != bodies.size()) {
+            return false;
+        }
+        for (int i = 0; i < bodies.size(); i++) {
+            if (found.get(i).getDeclarationIndex() != bodies.get(i).getDeclarationIndex() ||
+                    found.get(i).getEndIndex() != bodies.get(i).getEndIndex()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<MethodBody> withMethods(List<MethodBody> bodies, List<Method> methods) {
+        List<MethodBody> withMethods = new ArrayList<>(bodies.size());
+        for (int i = 0; i < bodies.size(); i++) {
+            MethodBody body = bodies.get(i);
+            withMethods.add(new MethodBody(body.getDeclarationIndex(), body.getEndIndex(), body.getLineNumber(),
+                    methods.get(i)));
+        }
+        return withMethods;
+    }
+
+    private static List<Method> methodsOf(List<MethodBody> bodies) {
+        List<Method> methods = new ArrayList<>(bodies.size());
+        for (MethodBody body : bodies) {
+            methods.add(body.getMethod());
+        }
+        return methods;
+    }
+
+    /*
+     * the errors that the first scan finds in the lines of a body, which are only its invalid lines as
+     * long as the body declares no method and opens a scope with every if and while.
+     * null if there may be other errors.
+     */
+    private static List<Diagnostic> invalidLines(SourceFile next, MethodBody body) {
+        List<SourceLine> lines = next.getLines();
+        List<Diagnostic> invalid = new ArrayList<>();
+        int depth = METHOD_SCOPE_DEPTH;
+        for (int index = body.getDeclarationIndex() + 1; index < body.getEndIndex(); index++) {
+            SourceLine sourceLine = lines.get(index);
+            depth += sourceLine.getScopeDelta();
+            LineType type = sourceLine.getTypeIfValid();
+            if (type == null) {
+                try {
+                    sourceLine.getType();
+                } catch (InvalidLineSyntaxException e) {
+                    invalid.add(new Diagnostic(sourceLine.getLineNumber(), sourceLine.getColumn(),
+                            e.getMessage()));
+                }
+            } else if (type == LineType.METHOD_DECLARATION ||
+                    (type == LineType.IF_WHILE_CONDITION && depth == METHOD_SCOPE_DEPTH) ||
+                    (type != LineType.END_OF_SCOPE && depth == GLOBAL_SCOPE_DEPTH)) {
+                return null;
+            }
+        }
+        return invalid;
+    }
+
+    private static List<List<Diagnostic>> invalidLines(SourceFile next, List<MethodBody> bodies) {
+        List<List<Diagnostic>> invalidLines = new ArrayList<>(bodies.size());
+        for (MethodBody body : bodies) {
+            List<Diagnostic> invalid = invalidLines(next, body);
+            if (invalid == null) {
+                return null;
+            }
+            invalidLines.add(invalid);
+        }
+        return invalidLines;
+    }
+
+    /*
+     * compare the text and the column of the lines, and when they are in a body, their places relative
+     * to its first line as well.
+     */
+    private static boolean isSameLines(List<SourceLine> previousLines, int previousFrom, int previousTo,
+                                       List<SourceLine> lines, int from, int to, boolean isBody) {
+        if (previousTo - previousFrom != to - from) {
+            return false;
+        }
+        for (int i = 0; i < to - from; i++) {
+            SourceLine previousLine = previousLines.get(previousFrom + i);
+            SourceLine line = lines.get(from + i);
+            if (!line.getText().equals(previousLine.getText()) || line.getColumn() != previousLine.getColumn()) {
+                return false;
+            }
+            if (isBody && line.getLineNumber() - lines.get(from).getLineNumber() !=
+                    previousLine.getLineNumber() - previousLines.get(previousFrom).getLineNumber()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Diagnostic> shift(List<Diagnostic> diagnostics, int lines) {
+        if (lines == 0) {
+            return diagnostics;
+        }
+        List<Diagnostic> shifted = new ArrayList<>(diagnostics.size());
+        for (Diagnostic diagnostic : diagnostics) {
+            shifted.add(new Diagnostic(diagnostic.getLineNumber() + lines, diagnostic.getColumn(),
+                    diagnostic.getMessage()));
+        }
+        return shifted;
+    }
+
+    private static int count(List<List<Diagnostic>> diagnostics) {
+        int count = 0;
+        for (List<Diagnostic> methodDiagnostics : diagnostics) {
+            count += methodDiagnostics.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,68 @@
+package ex5.main;
+
+import ex5.models.Method;
+
+/**
+ * The place of a method in the line table of a SourceFile, as found by the first scan, with the method
+ * that the first scan parsed from its declaration.
+ * the body starts at the declaration line and ends after the line that closes the method scope.
+ * the method is shared with the methods of the scanner, so a scan of the body must enter a copy of it.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class MethodBody {
+    private final int declarationIndex;
+    private final int endIndex;
+    private final int lineNumber;
+    private final Method method;
+
+    /**
+     * The constructor of the MethodBody class.
+     *
+     * @param declarationIndex the index of the method declaration line.
+     * @param endIndex         the index after the line that closes the method.
+     * @param lineNumber       the number of the declaration line in the file.
+     * @param method           the method of the declaration, null if the declaration is invalid.
+     */
+    public MethodBody(int declarationIndex, int endIndex, int lineNumber, Method method) {
+        this.declarationIndex = declarationIndex;
+        this.endIndex = endIndex;
+        this.lineNumber = lineNumber;
+        this.method = method;
+    }
+
+    /**
+     * Get the index of the method declaration line.
+     *
+     * @return the index of the declaration line in the line table.
+     */
+    public int getDeclarationIndex() {
+        return declarationIndex;
+    }
+
+    /**
+     * Get the index after the last line of the method.
+     *
+     * @return the index after the line that closes the method.
+     */
+    public int getEndIndex() {
+        return endIndex;
+    }
+
+    /**
+     * Get the number of the declaration line in the file.
+     *
+     * @return the line number, starting from 1.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Get the method that the first scan parsed from the declaration.
+     *
+     * @return the method, null if the declaration is invalid.
+     */
+    public Method getMethod() {
+        return method;
+    }
+}
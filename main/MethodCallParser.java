@@ -0,0 +1,105 @@
+package ex5.main;
+
+import ex5.models.InvalidValueException;
+import ex5.models.Literal;
+import ex5.models.LiteralKind;
+import ex5.models.MethodSignature;
+import ex5.models.Variable;
+
+/**
+ * A parser of the arguments of a method call, which walks the text of the line in place.
+ * the arguments are the text between the first ( and the last ) of the line, split around commas the way
+ * String.split splits it: empty arguments at the end are dropped, so foo(a,) has one argument and foo(,)
+ * has none, and an empty argument before another one is an invalid value.
+ * every argument is checked against the MethodSignature of the method, without creating anything.
+ * @author noa.farag, noya.ashkenazi
+ */
+class MethodCallParser {
+    private static final String INVALID_NUMBER_OF_PARAMETERS = "Invalid number of parameters";
+    private static final String PARAMETER_IS_NOT_INITIALIZED = "Parameter is not initialized";
+    private static final char COMMA = ',';
+
+    private MethodCallParser() {
+    }
+
+    /**
+     * Check the arguments of a call.
+     *
+     * @param scopeManager the scopes to look the variable arguments up in.
+     * @param signature    the signature of the called method.
+     * @param line         the line of the call.
+     * @param start        the index after the ( of the call.
+     * @param end          the index of the ) of the call.
+     * @throws InvalidValueException if the number of the arguments is wrong, or an argument is not valid
+     *                               for its parameter.
+     */
+    static void checkArguments(ScopeManager scopeManager, MethodSignature signature, String line, int start,
+                               int end) throws InvalidValueException {
+        // trim the arguments
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (countArguments(line, start, end) != signature.getParameterCount()) {
+            throw new InvalidValueException(INVALID_NUMBER_OF_PARAMETERS);
+        }
+        int argumentStart = start;
+        for (int i = 0; i < signature.getParameterCount(); i++) {
+            int argumentEnd = line.indexOf(COMMA, argumentStart);
+            if (argumentEnd < 0 || argumentEnd > end) {
+                argumentEnd = end;
+            }
+            checkArgument(scopeManager, signature, i, line, argumentStart, argumentEnd);
+            argumentStart = argumentEnd + 1;
+        }
+    }
+
+    /*
+     * the number of the arguments, up to the last one that is not empty.
+     */
+    private static int countArguments(String line, int start, int end) {
+        int count = 0;
+        int arguments = 0;
+        int argumentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || line.charAt(i) == COMMA) {
+                arguments++;
+                if (i > argumentStart) {
+                    count = arguments;
+                }
+                argumentStart = i + 1;
+            }
+        }
+        return count;
+    }
+
+    private static void checkArgument(ScopeManager scopeManager, MethodSignature signature, int index,
+                                      String line, int start, int end) throws InvalidValueException {
+        // trim the argument
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        LiteralKind kind = null;
+        Variable variable = scopeManager.lookupVariable(line, start, end);
+        if (variable != null) {
+            if (!variable.getIsInitialized()) {
+                throw new InvalidValueException(PARAMETER_IS_NOT_INITIALIZED);
+            }
+            if (variable.getValue() != null) {
+                kind = variable.getValue().getKind();
+            }
+        }
+        if (kind == null) {
+            kind = Literal.kindOf(line, start, end);
+        }
+        String error = signature.argumentError(index, kind);
+        if (error != null) {
+            throw new InvalidValueException(error);
+        }
+    }
+}
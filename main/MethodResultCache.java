@@ -0,0 +1,234 @@
+package ex5.main;
+
+import ex5.helpers.IdentifierInterner;
+import ex5.models.MethodSignature;
+import ex5.models.Variable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An on-disk cache of the errors of single methods, so a file that changed in one method checks only
+ * that method, in a later run of the program as well.
+ * a method is keyed by a hash of its declaration and body lines, with their places relative to the
+ * declaration, and a fingerprint of what checking the body reads outside of it: every global variable
+ * and every method whose name is a word of these lines, as the first scan left them. the key also
+ * holds the fingerprint of the compiler, like the keys of the ResultCache.
+ * the methods of a file are kept in a single entry, under the path of the file, in a compact binary
+ * format: the number of the methods, then for every method its key, the number of its errors, and
+ * every error as its line relative to the declaration, its column and its message.
+ * the cache also keeps the ScanSnapshot of the first scan of every file, so a file whose global lines
+ * did not change is not scanned for its global variables and methods again.
+ * @author noa.farag, noya.ashkenazi
+ */
+class MethodResultCache {
+    private static final String METHODS_DIRECTORY = "methods";
+    private static final String SNAPSHOTS_DIRECTORY = "snapshots";
+    private static final int FORMAT_VERSION = 1;
+    private static final int VARIABLE = 'v';
+    private static final int METHOD = 'm';
+    private static final int NO_VALUE = -1;
+
+    private final ResultCache cache;
+    private final ResultCache snapshots;
+    private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream(); // reused by every key
+
+    /**
+     * The constructor of the MethodResultCache class.
+     *
+     * @param cache the cache of the results of whole files, the methods are kept in a sub directory of it.
+     */
+    MethodResultCache(ResultCache cache) {
+        this.cache = cache.subCache(METHODS_DIRECTORY);
+        this.snapshots = cache.subCache(SNAPSHOTS_DIRECTORY);
+    }
+
+    /**
+     * Compute the key of the snapshot of the first scan of a file.
+     *
+     * @param source the lines of the file.
+     * @param bodies the bodies of the methods of the file.
+     * @return the key, a hash of the global lines of the file.
+     */
+    String snapshotKeyOf(SourceFile source, List<MethodBody> bodies) {
+        return snapshots.keyOf(ScanSnapshot.globalLines(source, bodies));
+    }
+
+    /**
+     * Load the snapshot of a first scan.
+     *
+     * @param key      the key of the snapshot.
+     * @param interner the interner of the names of the file.
+     * @return the snapshot, null if there is none.
+     */
+    ScanSnapshot loadSnapshot(String key, IdentifierInterner interner) {
+        ByteBuffer content = snapshots.mapEntry(key);
+        return content == null ? null : ScanSnapshot.read(content, interner);
+    }
+
+    /**
+     * Store the snapshot of a first scan.
+     *
+     * @param key      the key of the snapshot.
+     * @param snapshot the snapshot.
+     */
+    void storeSnapshot(String key, ScanSnapshot snapshot) {
+        snapshots.storeEntry(key, snapshot.toBytes());
+    }
+
+    /**
+     * Compute the key of a method.
+     *
+     * @param scanner the scanner of the file, after its first scan.
+     * @param source  the lines of the file.
+     * @param body    the place of the method in the lines.
+     * @return the key of the method.
+     */
+    String keyOf(GeneralScanner scanner, SourceFile source, MethodBody body) {
+        keyBytes.reset();
+        DataOutputStream key = new DataOutputStream(keyBytes);
+        try {
+            List<SourceLine> lines = source.getLines();
+            key.writeInt(body.getEndIndex() - body.getDeclarationIndex());
+            for (int index = body.getDeclarationIndex(); index < body.getEndIndex(); index++) {
+                SourceLine line = lines.get(index);
+                key.writeInt(line.getLineNumber() - body.getLineNumber());
+                key.writeInt(line.getColumn());
+                writeText(key, line.getText());
+            }
+            Set<String> names = new HashSet<>();
+            for (int index = body.getDeclarationIndex(); index < body.getEndIndex(); index++) {
+                writeDependencies(key, scanner, lines.get(index).getText(), names);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never thrown by a stream of bytes
+        }
+        return cache.keyOf(keyBytes.toByteArray());
+    }
+
+    /*
+     * the global variables and the methods that the words of a line name, every name once.
+     */
+    private static void writeDependencies(DataOutputStream key, GeneralScanner scanner, String line,
+                                          Set<String> names) throws IOException {
+        int index = 0;
+        while (index < line.length()) {
+            if (!isWordCharacter(line.charAt(index))) {
+                index++;
+                continue;
+            }
+            int start = index;
+            while (index < line.length() && isWordCharacter(line.charAt(index))) {
+                index++;
+            }
+            Variable variable = scanner.getGlobalVariable(line, start, index);
+            MethodSignature signature = scanner.getSignature(line, start, index);
+            if ((variable == null && signature == null) || !names.add(line.substring(start, index))) {
+                continue;
+            }
+            writeText(key, line.substring(start, index));
+            if (variable != null) {
+                key.writeByte(VARIABLE);
+                key.writeInt(variable.getType().ordinal());
+                key.writeBoolean(variable.isFinal());
+                key.writeBoolean(variable.getIsInitialized());
+                key.writeInt(variable.getValue() == null ? NO_VALUE : variable.getValue().getKind().ordinal());
+            }
+            if (signature != null) {
+                key.writeByte(METHOD);
+                key.writeInt(signature.getParameterCount());
+                for (int i = 0; i < signature.getParameterCount(); i++) {
+                    key.writeInt(signature.getType(i).ordinal());
+                    key.writeBoolean(signature.isFinal(i));
+                }
+            }
+        }
+    }
+
+    private static boolean isWordCharacter(char character) {
+        return character == '_' || Character.isLetterOrDigit(character);
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Load the methods that were stored for a file.
+     *
+     * @param file the path of the file.
+     * @return the errors of every method by its key, with their lines relative to the declaration, empty
+     * if nothing was stored.
+     */
+    Map<String, List<Diagnostic>> load(String file) {
+        Map<String, List<Diagnostic>> methods = new HashMap<>();
+        byte[] content = cache.lookupEntry(entryKey(file));
+        if (content == null) {
+            return methods;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return methods;
+            }
+            int methodCount = in.readInt();
+            for (int i = 0; i < methodCount; i++) {
+                String key = in.readUTF();
+                int errorCount = in.readInt();
+                List<Diagnostic> errors = new ArrayList<>(errorCount);
+                for (int j = 0; j < errorCount; j++) {
+                    errors.add(new Diagnostic(in.readInt(), in.readInt(), in.readUTF()));
+                }
+                methods.put(key, errors);
+            }
+        } catch (IOException | RuntimeException e) {
+            methods.clear(); // a broken entry, the methods are checked again
+        }
+        return methods;
+    }
+
+    /**
+     * Store the methods of a file, in place of the ones that were stored for it before.
+     *
+     * @param file   the path of the file.
+     * @param keys   the keys of the methods.
+     * @param errors the errors of every method, with their lines relative to the declaration.
+     */
+    void store(String file, List<String> keys, List<List<Diagnostic>> errors) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                out.writeUTF(keys.get(i));
+                out.writeInt(errors.get(i).size());
+                for (Diagnostic error : errors.get(i)) {
+                    out.writeInt(error.getLineNumber());
+                    out.writeInt(error.getColumn());
+                    out.writeUTF(error.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            return; // a message too long for the format, the methods are checked again next time
+        }
+        cache.storeEntry(entryKey(file), bytes.toByteArray());
+    }
+
+    private String entryKey(String file) {
+        return cache.keyOf(Path.of(file).toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
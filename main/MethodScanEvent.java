@@ -0,0 +1,58 @@
+package ex5.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for the check of the body of a single method by the final scan.
+ * @author noa.farag, noya.ashkenazi
+ */
+@Name("ex5.MethodScan")
+@Label("Method Scan")
+@Category({"S-Java", "Compiler"})
+@Description("The check of the body of a method")
+@StackTrace(false)
+class MethodScanEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(MethodScanEvent.class);
+
+    @Label("Method")
+    String method;
+
+    @Label("Line Count")
+    @Description("The significant lines of the body, the declaration not included")
+    int lineCount;
+
+    /**
+     * Start timing the check of a method.
+     *
+     * @return the started event, null if the event is not recorded.
+     */
+    static MethodScanEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        MethodScanEvent event = new MethodScanEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the check, and commit the event if it is recorded.
+     *
+     * @param method    the name of the method.
+     * @param lineCount the number of significant lines that were checked.
+     */
+    void finish(String method, int lineCount) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.lineCount = lineCount;
+            commit();
+        }
+    }
+}
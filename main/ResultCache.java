@@ -0,0 +1,287 @@
+package ex5.main;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An on-disk cache of validation results, shared by all the runs of the program.
+ * an entry is keyed by a hash of the file content and of the compiler itself, so a file that did not
+ * change since it was last validated by the same compiler is not scanned again.
+ * entries are written to a temporary file and renamed into place, so several processes can share the
+ * cache, and the least recently used entries are deleted when there are too many of them.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class ResultCache {
+    /**
+     * The default maximal number of entries.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String COMPILER_CLASSES = "ex5";
+    private static final String CLASS_FILE = ".class";
+    private static final String ENTRY_SEPARATOR = "\n";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String LOCK_FILE = ".lock";
+    private static final int SHARD_NAME_LENGTH = 2;
+    private static final int EVICTION_CHECK_RATE = 32;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static byte[] compilerFingerprint;
+
+    private final Path directory;
+    private final int maxEntries;
+
+    /**
+     * The constructor of the ResultCache class.
+     *
+     * @param directory  the directory of the cache, created if it does not exist.
+     * @param maxEntries the maximal number of entries to keep.
+     */
+    public ResultCache(Path directory, int maxEntries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Compute the key of a file.
+     *
+     * @param content the bytes of the file.
+     * @return the key of the file in the cache.
+     */
+    public String keyOf(byte[] content) {
+        MessageDigest digest = newDigest();
+        digest.update(getCompilerFingerprint());
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Look for the result of a file.
+     *
+     * @param key the key of the file.
+     * @return the result that was stored for the key, null if there is none.
+     */
+    public ValidationResult lookup(String key) {
+        byte[] content = lookupEntry(key);
+        if (content == null) {
+            return null;
+        }
+        try {
+            String[] lines = new String(content, StandardCharsets.UTF_8).split(ENTRY_SEPARATOR, -1);
+            int status = Integer.parseInt(lines[0]);
+            String message = lines.length > 1 && !lines[1].isEmpty() ? lines[1] : null;
+            return new ValidationResult(status, message);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Look for the content of an entry, and mark it as recently used.
+     *
+     * @param key the key of the entry.
+     * @return the bytes that were stored for the key, null if there are none.
+     */
+    byte[] lookupEntry(String key) {
+        Path entry = entryPath(key);
+        try {
+            byte[] content = Files.readAllBytes(entry);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return content;
+        } catch (IOException e) {
+            // no entry, or it was evicted by another process while it was read
+            return null;
+        }
+    }
+
+    /**
+     * Store the result of a file.
+     * a failure to write is ignored, the cache only saves work.
+     *
+     * @param key    the key of the file.
+     * @param result the result of the file.
+     */
+    public void store(String key, ValidationResult result) {
+        String content = result.getStatus() + ENTRY_SEPARATOR +
+                (result.getMessage() == null ? "" : result.getMessage()) + ENTRY_SEPARATOR;
+        storeEntry(key, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Map the content of an entry into memory, and mark it as recently used.
+     * the mapping stays valid when the entry is replaced or evicted, since an entry is never written in
+     * place, it is renamed over or deleted.
+     *
+     * @param key the key of the entry.
+     * @return the bytes that were stored for the key, null if there are none.
+     */
+    ByteBuffer mapEntry(String key) {
+        Path entry = entryPath(key);
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            ByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return content;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Store the content of an entry, in place of the one that was stored for the key before.
+     * a failure to write is ignored, the cache only saves work.
+     *
+     * @param key     the key of the entry.
+     * @param content the bytes to store.
+     */
+    void storeEntry(String key, byte[] content) {
+        Path entry = entryPath(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temp = Files.createTempFile(entry.getParent(), key, TEMP_FILE_SUFFIX);
+            Files.write(temp, content);
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            return;
+        }
+        // listing the cache is not free, so it is checked on a sample of the stores
+        if (ThreadLocalRandom.current().nextInt(EVICTION_CHECK_RATE) == 0) {
+            evict();
+        }
+    }
+
+    /**
+     * Get a cache in a sub directory of this cache, with the same size, for entries of another kind.
+     * its entries are two directories deep, so they are not counted or evicted by this cache.
+     *
+     * @param name the name of the sub directory.
+     * @return the cache in the sub directory.
+     */
+    ResultCache subCache(String name) {
+        return new ResultCache(directory.resolve(name), maxEntries);
+    }
+
+    /**
+     * Delete the least recently used entries until the cache is within its size.
+     * only one process evicts at a time, the others skip it.
+     */
+    public void evict() {
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.tryLock()) {
+            if (lock == null) {
+                return;
+            }
+            List<Path> entries = listEntries();
+            if (entries.size() <= maxEntries) {
+                return;
+            }
+            List<Path> byLastUse = new ArrayList<>(entries);
+            byLastUse.sort(Comparator.comparingLong(ResultCache::lastModified));
+            for (Path entry : byLastUse.subList(0, entries.size() - maxEntries)) {
+                Files.deleteIfExists(entry);
+            }
+        } catch (IOException e) {
+            // another process may be changing the cache, the next eviction will try again
+        }
+    }
+
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> files = Files.walk(directory, SHARD_NAME_LENGTH)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith(LOCK_FILE))
+                    .filter(file -> !file.getFileName().toString().endsWith(TEMP_FILE_SUFFIX))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long lastModified(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry).toMillis();
+        } catch (IOException e) {
+            return Long.MIN_VALUE; // already deleted
+        }
+    }
+
+    private Path entryPath(String key) {
+        // entries are spread over sub directories, so no directory becomes too large
+        return directory.resolve(key.substring(0, SHARD_NAME_LENGTH)).resolve(key);
+    }
+
+    /*
+     * the fingerprint is a hash of the class files of the compiler, so a new build of the compiler
+     * never uses the results of an old one. the charset that the files are decoded with is a part of it
+     * as well, since the same bytes may be a different file in another charset.
+     */
+    private static synchronized byte[] getCompilerFingerprint() {
+        if (compilerFingerprint != null) {
+            return compilerFingerprint;
+        }
+        MessageDigest digest = newDigest();
+        try {
+            Path location = Path.of(ResultCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isDirectory(location)) {
+                List<Path> classFiles;
+                try (Stream<Path> files = Files.walk(location.resolve(COMPILER_CLASSES))) {
+                    classFiles = files.filter(file -> file.toString().endsWith(CLASS_FILE))
+                            .sorted().collect(Collectors.toList());
+                }
+                for (Path classFile : classFiles) {
+                    digest.update(location.relativize(classFile).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(classFile));
+                }
+            } else {
+                try (InputStream archive = Files.newInputStream(location)) {
+                    digest.update(archive.readAllBytes());
+                }
+            }
+        } catch (IOException | URISyntaxException | SecurityException | NullPointerException e) {
+            // the compiler cannot be read, every run gets its own fingerprint and nothing is reused
+            digest.update(Long.toString(System.nanoTime()).getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(Charset.defaultCharset().name().getBytes(StandardCharsets.UTF_8));
+        compilerFingerprint = digest.digest();
+        return compilerFingerprint;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every java platform must support SHA-256
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,206 @@
+package ex5.main;
+
+import ex5.helpers.IdentifierInterner;
+import ex5.models.InvalidNameException;
+import ex5.models.Literal;
+import ex5.models.LiteralKind;
+import ex5.models.Method;
+import ex5.models.Variable;
+import ex5.models.VariableType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The output of a first scan: the global variables as the scan left them, and the methods that it
+ * parsed from the declarations, in the order of the file.
+ * a file whose global lines did not change has the same output, so a snapshot is kept under a hash of
+ * the global lines, the lines outside the bodies of the methods and the declarations, and a file with
+ * the same hash goes straight to checking its methods.
+ * a snapshot is stored in a compact binary format, which is read from a memory mapped buffer:
+ * the format version, the global variables, then the methods, each with its name and its parameters.
+ * a variable is its name, its type, its finality, its initialization, and the kind and the text of its
+ * value if it has one.
+ * @author noa.farag, noya.ashkenazi
+ */
+class ScanSnapshot {
+    private static final int FORMAT_VERSION = 2;
+    private static final int NO_VALUE = -1;
+    private static final int NO_STRING = -1;
+    private static final int LINE_SEPARATOR = '\n';
+    private static final VariableType[] TYPES = VariableType.values();
+    private static final LiteralKind[] KINDS = LiteralKind.values();
+
+    private final SymbolTable globalScope;
+    private final List<Method> methods;
+
+    /**
+     * The constructor of the ScanSnapshot class.
+     *
+     * @param globalScope the global variables.
+     * @param methods     the methods of the file, in the order of their declarations.
+     */
+    ScanSnapshot(SymbolTable globalScope, List<Method> methods) {
+        this.globalScope = globalScope;
+        this.methods = methods;
+    }
+
+    /**
+     * Get the global variables.
+     *
+     * @return the global scope.
+     */
+    SymbolTable getGlobalScope() {
+        return globalScope;
+    }
+
+    /**
+     * Get the methods of the file.
+     *
+     * @return the methods, in the order of their declarations.
+     */
+    List<Method> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Get the global lines of a file, which the key of its snapshot is computed from.
+     *
+     * @param source the lines of the file.
+     * @param bodies the bodies of the methods of the file.
+     * @return the text of every line outside the bodies, and of every declaration, a line after a line.
+     */
+    static byte[] globalLines(SourceFile source, List<MethodBody> bodies) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<SourceLine> lines = source.getLines();
+        int body = 0;
+        for (int index = 0; index < lines.size(); index++) {
+            if (body < bodies.size() && index > bodies.get(body).getDeclarationIndex()) {
+                index = bodies.get(body++).getEndIndex() - 1; // skip the body, after its declaration
+                continue;
+            }
+            bytes.writeBytes(lines.get(index).getText().getBytes(StandardCharsets.UTF_8));
+            bytes.write(LINE_SEPARATOR);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Write the snapshot in its binary format.
+     *
+     * @return the bytes of the snapshot.
+     */
+    byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(globalScope.size());
+            List<Variable> variables = new ArrayList<>(globalScope.size());
+            globalScope.forEach(variables::add);
+            for (Variable variable : variables) {
+                writeVariable(out, variable);
+            }
+            out.writeInt(methods.size());
+            for (Method method : methods) {
+                writeString(out, method.getName());
+                out.writeInt(method.getParameters().size());
+                for (Variable parameter : method.getParameters()) {
+                    writeVariable(out, parameter);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never thrown by a stream of bytes
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeVariable(DataOutputStream out, Variable variable) throws IOException {
+        writeString(out, variable.getName());
+        out.writeByte(variable.getType().ordinal());
+        out.writeBoolean(variable.isFinal());
+        out.writeBoolean(variable.getIsInitialized());
+        Literal value = variable.getValue();
+        out.writeByte(value == null ? NO_VALUE : value.getKind().ordinal());
+        if (value != null) {
+            writeString(out, value.getText());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a snapshot from its binary format.
+     * the names of the global variables are interned into the interner of the file, so the global
+     * scope can be looked up by the ids of its lines.
+     *
+     * @param buffer   the bytes of the snapshot.
+     * @param interner the interner of the names of the file.
+     * @return the snapshot, null if the bytes are not a snapshot of this format.
+     */
+    static ScanSnapshot read(ByteBuffer buffer, IdentifierInterner interner) {
+        try {
+            if (buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            SymbolTable globalScope = new SymbolTable();
+            int variableCount = buffer.getInt();
+            for (int i = 0; i < variableCount; i++) {
+                Variable variable = readVariable(buffer);
+                globalScope.put(interner.intern(variable.getName()), variable);
+            }
+            int methodCount = buffer.getInt();
+            List<Method> methods = new ArrayList<>(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                String name = readString(buffer);
+                Variable[] parameters = new Variable[buffer.getInt()];
+                for (int j = 0; j < parameters.length; j++) {
+                    parameters[j] = readVariable(buffer);
+                }
+                methods.add(new Method(name, parameters));
+            }
+            return buffer.hasRemaining() ? null : new ScanSnapshot(globalScope, methods);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException |
+                 NegativeArraySizeException | NullPointerException | InvalidNameException e) {
+            return null; // a broken snapshot, the file is scanned again
+        }
+    }
+
+    private static Variable readVariable(ByteBuffer buffer) {
+        String name = readString(buffer);
+        VariableType type = TYPES[buffer.get()];
+        boolean isFinal = buffer.get() != 0;
+        boolean isInitialized = buffer.get() != 0;
+        int kind = buffer.get();
+        Literal value = null;
+        if (kind != NO_VALUE) {
+            value = Literal.of(KINDS[kind], readString(buffer));
+        }
+        return new Variable(name, type, isFinal, isInitialized, value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
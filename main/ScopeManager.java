@@ -1,36 +1,54 @@
 package ex5.main;
 
+import ex5.helpers.CompileStats;
+import ex5.helpers.IdentifierInterner;
 import ex5.models.Method;
 import ex5.models.Variable;
 import ex5.models.InvalidValueException;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Stack;
 
 /**
  * The ScopeManager class is responsible for managing the scopes of the program.
  * It is responsible for managing the scopes of the program, including the global scope and method scopes.
+ * inside a method the global scope is read only: a global that the method assigns is copied into an
+ * overlay of the method on its first write, and the overlay is dropped when the method is exited.
+ * this way the global scope can be shared by all the methods, and is never copied as a whole.
+ * names are turned into ids by an IdentifierInterner once per lookup, and every scope is probed by id.
  * @author noa.farag, noya.ashkenazi
  */
 public class ScopeManager {
     private static final String SCOPE_ERROR_MESSAGE = "No scope to exit";
+    private static final String NOT_INTERNED_ERROR_MESSAGE = "A name that was not read from the file: ";
     private static final String DOUBLE_DECLARATION_ERROR_MESSAGE =
             "Variable already declared in this scope: ";
 
-    private Stack<Map<String, Variable>> scopes;
+    private final IdentifierInterner interner;
+    private Stack<SymbolTable> scopes;
     private boolean isInsideMethod;
     private Method currentMethod;
     private int methodScope;
+    private SymbolTable globalWrites;
 
     /**
      * Create a new ScopeManager object.
      * The constructor initializes the global scope and sets isInsideMethod to false.
      */
     public ScopeManager() {
+        this(new IdentifierInterner());
+    }
+
+    /**
+     * Create a new ScopeManager object for the names of a file.
+     *
+     * @param interner the interner that holds the names of the file.
+     */
+    public ScopeManager(IdentifierInterner interner) {
+        this.interner = interner;
         this.scopes = new Stack<>();
         // push the global scope
-        scopes.push(new HashMap<>());
+        scopes.push(new SymbolTable());
+        CompileStats.recordScopeDepth(scopes.size());
         // init isInsideMethod to false
         this.isInsideMethod = false;
         this.currentMethod = null;
@@ -41,14 +59,15 @@ public class ScopeManager {
      * Enter a new scope.
      */
     public void enterScope() {
-        scopes.push(new HashMap<>());
+        scopes.push(new SymbolTable());
+        CompileStats.recordScopeDepth(scopes.size());
     }
 
     private void exitMethodScope() {
         currentMethod = null;
         isInsideMethod = false;
         methodScope = -1;
-        // comm
+        globalWrites = null;
     }
 
     /**
@@ -56,8 +75,17 @@ public class ScopeManager {
      *
      * @return the global scope.
      */
-    public HashMap<String, Variable> getGlobalScope() {
-        return (HashMap<String, Variable>) scopes.get(0);
+    public SymbolTable getGlobalScope() {
+        return scopes.get(0);
+    }
+
+    /**
+     * Get the interner of the names.
+     *
+     * @return the interner.
+     */
+    public IdentifierInterner getInterner() {
+        return interner;
     }
 
     /**
@@ -81,29 +109,82 @@ public class ScopeManager {
      * @return the variable.
      */
     public Variable lookupVariable(String name) {
-        for (int i = scopes.size() - 1; i >= 0; i--) {
-            Map<String, Variable> currentScope = scopes.get(i);
-            if (currentScope.containsKey(name)) {
-                return currentScope.get(name);
+        return lookupVariable(interner.idOf(name), false);
+    }
+
+    /**
+     * Lookup a variable by a name that is a part of a line, without cutting the name out of the line.
+     *
+     * @param line  the line that holds the name.
+     * @param start the index of the first character of the name.
+     * @param end   the index after the last character of the name.
+     * @return the variable.
+     */
+    public Variable lookupVariable(String line, int start, int end) {
+        return lookupVariable(interner.idOf(line, start, end), false);
+    }
+
+    /**
+     * Lookup a variable that is about to be assigned.
+     * inside a method, a global variable is copied into the overlay of the method, so the assignment
+     * does not change the global scope.
+     *
+     * @param name the name of the variable to lookup.
+     * @return the variable, which may be changed.
+     */
+    public Variable lookupVariableForWrite(String name) {
+        return lookupVariable(interner.idOf(name), true);
+    }
+
+    private Variable lookupVariable(int id, boolean forWrite) {
+        if (id == IdentifierInterner.NOT_INTERNED || scopes.isEmpty()) {
+            CompileStats.countLookup(0);
+            return null; // a name that is not in the file was never declared, no scope is searched
+        }
+        for (int i = scopes.size() - 1; i > 0; i--) {
+            Variable variable = scopes.get(i).get(id);
+            if (variable != null) {
+                CompileStats.countLookup(scopes.size() - i);
+                return variable;
             }
 
         }
-        return null;
+        if (globalWrites != null) {
+            Variable written = globalWrites.get(id);
+            if (written != null) {
+                CompileStats.countLookup(scopes.size());
+                return written;
+            }
+        }
+        CompileStats.countLookup(scopes.size());
+        Variable variable = scopes.get(0).get(id);
+        if (forWrite && variable != null && globalWrites != null) {
+            // copy on the first write, the global scope itself stays as it was
+            variable = new Variable(variable);
+            globalWrites.put(id, variable);
+        }
+        return variable;
     }
 
     /**
      * Declare a variable in the current scope.
      * If the variable is already declared in the current scope, an exception is thrown.
+     * the name must have been interned when the file was read, since the methods may be checked by many
+     * threads that read the interner, and no name may be added to it then.
      *
      * @param name     the name of the variable to declare.
      * @param variable the variable to declare.
      */
     public void declareVariable(String name, Variable variable) throws SyntaxException {
-        Map<String, Variable> currentScope = scopes.peek();
-        if (currentScope.containsKey(name)) {
+        SymbolTable currentScope = scopes.peek();
+        int id = interner.idOf(name);
+        if (id == IdentifierInterner.NOT_INTERNED) {
+            throw new IllegalStateException(NOT_INTERNED_ERROR_MESSAGE + name);
+        }
+        if (currentScope.containsKey(id)) {
             throw new SyntaxException(DOUBLE_DECLARATION_ERROR_MESSAGE + name);
         }
-        currentScope.put(name, variable);
+        currentScope.put(id, variable);
     }
 
 
@@ -153,6 +234,7 @@ public class ScopeManager {
         this.currentMethod = method;
         this.isInsideMethod = true;
         this.methodScope = scopes.size();
+        this.globalWrites = new SymbolTable();
         for (Variable param : method.getParameters()) {
             declareVariable(param.getName(), param);
             param.setIsInitialized(true); // set parameters as initialized,
@@ -162,12 +244,23 @@ public class ScopeManager {
         }
     }
 
+    /**
+     * Drop the global variables that the current method assigned.
+     * the global scope is back to the way it was before the method was entered.
+     */
+    public void discardGlobalWrites() {
+        if (globalWrites != null) {
+            globalWrites.clear();
+        }
+    }
+
     /**
      * Set the global scope.
+     * the scope is not changed by methods, so it may be shared with other scope managers.
      *
-     * @param globalVariablesCopy the global scope to set.
+     * @param globalVariables the global scope to set.
      */
-    public void setGlobalScope(HashMap<String, Variable> globalVariablesCopy) {
-        scopes.set(0, globalVariablesCopy);
+    public void setGlobalScope(SymbolTable globalVariables) {
+        scopes.set(0, globalVariables);
     }
 }
\ No newline at end of file
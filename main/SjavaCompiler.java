@@ -0,0 +1,110 @@
+package ex5.main;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Path;
+
+/**
+ * A compiler of S-Java files to embed in other programs, built once and shared by all their threads.
+ * the compiler keeps no state between validations. every validation reads its file into its own line
+ * table and scans it with its own scanner and scopes, and the regex matchers are kept per thread, so any
+ * number of threads may validate files at the same time.
+ * a validation never prints, its result holds the status, the errors with their places and the time of
+ * every stage.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class SjavaCompiler {
+    private static final int READ = 0;
+    private static final int FIRST_SCAN = 1;
+    private static final int FINAL_SCAN = 2;
+    private static final int STAGES = 3;
+
+    private final boolean allErrors;
+
+    /**
+     * A compiler that stops at the first error of a file, as the program does.
+     */
+    public SjavaCompiler() {
+        this(false);
+    }
+
+    /**
+     * The constructor of the SjavaCompiler class.
+     *
+     * @param allErrors true to collect all the errors of every file, false to stop at the first one.
+     */
+    public SjavaCompiler(boolean allErrors) {
+        this.allErrors = allErrors;
+    }
+
+    /**
+     * Validate a file on disk.
+     *
+     * @param file the path of the file, which must end with .sjava.
+     * @return the result of the validation.
+     */
+    public CompileResult validate(Path file) {
+        return validate(() -> {
+            Sjavac.checkSjavaFileName(file.toString());
+            return SourceFile.read(file.toString());
+        });
+    }
+
+    /**
+     * Validate a file from a stream, decoded the same way as a file on disk.
+     * the stream is closed at its end.
+     *
+     * @param input the stream of the file.
+     * @return the result of the validation.
+     */
+    public CompileResult validate(InputStream input) {
+        return validate(() -> SourceFile.read(input));
+    }
+
+    /**
+     * Validate a file from a reader, such as a StringReader of code that was generated in memory.
+     * the reader is closed at its end.
+     *
+     * @param reader the reader of the file.
+     * @return the result of the validation.
+     */
+    public CompileResult validate(Reader reader) {
+        return validate(() -> SourceFile.read(reader));
+    }
+
+    private CompileResult validate(Sjavac.SourceReader sourceReader) {
+        long[] starts = new long[STAGES];
+        starts[READ] = System.nanoTime();
+        ValidationResult result = Sjavac.report(() -> {
+            SourceFile source = sourceReader.read();
+            starts[FIRST_SCAN] = System.nanoTime();
+            GeneralScanner generalScanner = new GeneralScanner(new ScopeManager(source.getInterner()), source);
+            if (allErrors) {
+                generalScanner.collectAllErrors();
+            }
+            generalScanner.firstFileScan();
+            starts[FINAL_SCAN] = System.nanoTime();
+            generalScanner.finalFileScan();
+            if (allErrors) {
+                return new ValidationResult(generalScanner.getDiagnostics());
+            }
+            return new ValidationResult(ValidationResult.PASSED, null);
+        });
+        long end = System.nanoTime();
+        return new CompileResult(result, stageTime(starts, READ, end), stageTime(starts, FIRST_SCAN, end),
+                stageTime(starts, FINAL_SCAN, end), end - starts[READ]);
+    }
+
+    /*
+     * a stage ends when the next one starts, or with the validation if it is the last stage that started.
+     */
+    private static long stageTime(long[] starts, int stage, long end) {
+        if (starts[stage] == 0) {
+            return 0;
+        }
+        if (stage + 1 < STAGES && starts[stage + 1] != 0) {
+            return starts[stage + 1] - starts[stage];
+        }
+        return end - starts[stage];
+    }
+}
@@ -1,14 +1,22 @@
 package ex5.main;
 
 
+import ex5.helpers.CompileStats;
 import ex5.helpers.InvalidLineSyntaxException;
 import ex5.models.InvalidNameException;
 import ex5.models.InvalidValueException;
 import ex5.models.InvalidVariableTypeException;
 
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 
 
 /**
@@ -20,13 +28,21 @@ public class Sjavac {
 
 
     private static final String INVALID_NUMBER_OF_ARGUMENTS = "Invalid number of arguments";
-    private static final String PASSED_ALL_TESTS = "0";
-    private static final String FOUND_ERRORS = "1";
-    private static final String GENERAL_ERROR = "2";
     private static final String FILE_NOT_FOUND_ERROR = "File not found";
     private static final String AN_ERROR_OCCURRED = "An error occurred";
     private static final String FILE_FORMAT = ".sjava";
     private static final String INVALID_FILE_NAME = "Invalid file name";
+    private static final String DAEMON_OPTION = "--daemon";
+    private static final String CONNECT_OPTION = "--connect";
+    private static final String CACHE_OPTION = "--cache-dir";
+    private static final String CACHE_SIZE_OPTION = "--cache-size";
+    private static final String INVALID_CACHE_OPTION = "Invalid cache option";
+    private static final String ALL_ERRORS_OPTION = "--all-errors";
+    private static final String STATS_OPTION = "--stats";
+    private static final String WATCH_OPTION = "--watch";
+    private static final String STANDARD_INPUT = "-";
+    private static final int DAEMON_ARGUMENTS = 2;
+    private static final int CONNECT_ARGUMENTS = 3;
 
     private String file;
 
@@ -46,68 +62,375 @@ public class Sjavac {
      */
     public void run() throws IOException, InvalidVariableTypeException, InvalidNameException,
             InvalidValueException, InvalidLineSyntaxException, CompileException {
-        ScopeManager scopeManager = new ScopeManager();
-        GeneralScanner generalScanner = new GeneralScanner(scopeManager, file);
+        run(new GeneralScanner(new ScopeManager(), file));
+    }
+
+    /**
+     * Run the Sjavac program on a file that was already read.
+     *
+     * @param source the lines of the file.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public void run(SourceFile source) throws IOException, InvalidVariableTypeException, InvalidNameException,
+            InvalidValueException, InvalidLineSyntaxException, CompileException {
+        run(new GeneralScanner(new ScopeManager(source.getInterner()), source));
+    }
+
+    private void run(GeneralScanner generalScanner) throws IOException, InvalidVariableTypeException,
+            InvalidNameException, InvalidValueException, InvalidLineSyntaxException, CompileException {
         generalScanner.firstFileScan();
         generalScanner.finalFileScan();
     }
 
+    /**
+     * Run the Sjavac program and collect all the errors of the file, instead of stopping at the first one.
+     *
+     * @return the errors of the file, in the order of its lines, empty if the file is legal.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public List<Diagnostic> runAllErrors() throws IOException {
+        return runAllErrors(new GeneralScanner(new ScopeManager(), file));
+    }
+
+    /**
+     * Collect all the errors of a file that was already read.
+     *
+     * @param source the lines of the file.
+     * @return the errors of the file, in the order of its lines, empty if the file is legal.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public List<Diagnostic> runAllErrors(SourceFile source) throws IOException {
+        return runAllErrors(new GeneralScanner(new ScopeManager(source.getInterner()), source));
+    }
+
+    private List<Diagnostic> runAllErrors(GeneralScanner generalScanner) throws IOException {
+        generalScanner.collectAllErrors();
+        try {
+            run(generalScanner);
+        } catch (CompileException e) {
+            throw new IllegalStateException(e); // the errors are collected, never thrown
+        }
+        return generalScanner.getDiagnostics();
+    }
+
 
     /**
      * The ex5.main method of the Sjavac program.
+     * a single file is validated as is, several files, directories or @argfiles are validated
+     * in batch mode.
+     * --daemon socket keeps the program running as a CompileDaemon, and --connect socket file sends
+     * the file to a running daemon.
+     * --cache-dir dir [--cache-size entries], before any other argument, keeps the results in a
+     * ResultCache, so files that did not change are not validated again, and the errors of every method
+     * in a MethodResultCache, so in a file that changed only the methods that changed are checked again.
+     * --all-errors, before any other argument, reports every error of a file with its line and column
+     * instead of only the first one. only the errors of the methods are then cached, and --connect
+     * validates the file here, since a daemon reports only the first error.
+     * --stats, before any other argument, prints the counters of CompileStats as a line of json to the
+     * standard error, after the other output. every file is then validated here and not taken from the
+     * cache, so the counters cover all of them.
+     * a single - validates the standard input, with the same output as a file with the same content.
+     * --watch path... validates the files and directories like batch mode, then keeps running and
+     * validates every file again when it changes, checking only the methods that changed when it can.
      *
      * @param args the arguments given to the program.
      */
     public static void main(String[] args) throws IOException {
+        Path cacheDirectory = null;
+        int cacheSize = ResultCache.DEFAULT_MAX_ENTRIES;
+        boolean allErrors = false;
+        int options = 0;
+        while (options < args.length) {
+            if (args[options].equals(ALL_ERRORS_OPTION)) {
+                allErrors = true;
+                options++;
+                continue;
+            }
+            if (args[options].equals(STATS_OPTION)) {
+                CompileStats.enable();
+                options++;
+                continue;
+            }
+            if (args.length < options + 2 ||
+                    !(args[options].equals(CACHE_OPTION) || args[options].equals(CACHE_SIZE_OPTION))) {
+                break;
+            }
+            try {
+                if (args[options].equals(CACHE_OPTION)) {
+                    cacheDirectory = Path.of(args[options + 1]);
+                } else {
+                    cacheSize = Integer.parseInt(args[options + 1]);
+                    if (cacheSize < 0) {
+                        throw new NumberFormatException();
+                    }
+                }
+            } catch (InvalidPathException | NumberFormatException e) {
+                printResult(new ValidationResult(ValidationResult.GENERAL_ERROR, INVALID_CACHE_OPTION));
+                return;
+            }
+            options += 2;
+        }
+        ResultCache cache = cacheDirectory == null || CompileStats.isEnabled() ? null :
+                new ResultCache(cacheDirectory, cacheSize);
+        args = Arrays.copyOfRange(args, options, args.length);
+
+        if (args.length > 0 && args[0].equals(DAEMON_OPTION)) {
+            runDaemon(args, cache);
+            return;
+        }
+        if (args.length > 0 && args[0].equals(WATCH_OPTION)) {
+            runWatch(args, cache, allErrors);
+            return;
+        }
+        if (BatchValidator.isBatch(args) && !args[0].equals(CONNECT_OPTION)) {
+            int status = BatchValidator.runBatch(args, cache, allErrors, System.out, System.err);
+            printStats(status);
+            System.exit(status);
+        }
+        ValidationResult result;
+        if (args.length > 0 && args[0].equals(CONNECT_OPTION)) {
+            result = validateWithDaemon(args, cache, allErrors);
+        } else if (args.length != 1) {
+            result = new ValidationResult(ValidationResult.GENERAL_ERROR, INVALID_NUMBER_OF_ARGUMENTS);
+        } else if (args[0].equals(STANDARD_INPUT)) {
+            result = validate(System.in, allErrors);
+        } else {
+            result = validate(args[0], cache, allErrors);
+        }
+        printResult(result, allErrors);
+        printStats(result.getStatus());
+    }
+
+    private static void printStats(int status) {
+        if (CompileStats.isEnabled()) {
+            System.err.println(CompileStats.toJson(status));
+        }
+    }
+
+    private static void printResult(ValidationResult result) {
+        printResult(result, false);
+    }
+
+    private static void printResult(ValidationResult result, boolean allErrors) {
+        result.print(null, allErrors, System.out, System.err);
+    }
+
+    /*
+     * --daemon <socket>: keep running and validate the files that clients send.
+     */
+    private static void runDaemon(String[] args, ResultCache cache) {
+        if (args.length != DAEMON_ARGUMENTS) {
+            printResult(new ValidationResult(ValidationResult.GENERAL_ERROR, INVALID_NUMBER_OF_ARGUMENTS));
+            return;
+        }
+        try {
+            new CompileDaemon(Path.of(args[1]), cache).serve();
+        } catch (IOException e) {
+            printResult(new ValidationResult(ValidationResult.GENERAL_ERROR, e.getMessage()));
+            System.exit(ValidationResult.GENERAL_ERROR);
+        }
+    }
+
+    /*
+     * --watch <path>...: validate the files on every change, until the program is stopped.
+     */
+    private static void runWatch(String[] args, ResultCache cache, boolean allErrors) {
+        if (args.length < 2) {
+            printResult(new ValidationResult(ValidationResult.GENERAL_ERROR, INVALID_NUMBER_OF_ARGUMENTS));
+            return;
+        }
+        System.exit(WatchValidator.runWatch(Arrays.copyOfRange(args, 1, args.length), cache, allErrors,
+                System.out, System.err));
+    }
+
+    /*
+     * --connect <socket> <file>: let a running daemon validate the file.
+     * if there is no daemon on the socket, the file is validated here, so the output is always the same.
+     */
+    private static ValidationResult validateWithDaemon(String[] args, ResultCache cache, boolean allErrors) {
+        if (args.length != CONNECT_ARGUMENTS) {
+            return new ValidationResult(ValidationResult.GENERAL_ERROR, INVALID_NUMBER_OF_ARGUMENTS);
+        }
+        String filePath = args[CONNECT_ARGUMENTS - 1];
+        if (allErrors || CompileStats.isEnabled()) {
+            return validate(filePath, cache, allErrors);
+        }
         try {
+            return new DaemonClient(Path.of(args[1])).validate(filePath);
+        } catch (IOException | InvalidPathException e) {
+            return validate(filePath, cache);
+        }
+    }
 
+    /**
+     * Validate a single file.
+     *
+     * @param filePath the path of the file.
+     * @return the result of the validation.
+     */
+    public static ValidationResult validate(String filePath) {
+        return validate(filePath, null);
+    }
 
-            if (args.length != 1) {
-                //need to catch this exception.
-                throw new IOException(INVALID_NUMBER_OF_ARGUMENTS);
+    /**
+     * Validate a single file, using the results of previous runs.
+     * the cache is checked before the file is scanned, and a general error is never stored, since it
+     * depends on the environment and not on the content of the file.
+     *
+     * @param filePath the path of the file.
+     * @param cache    the cache of results, null to always scan the file.
+     * @return the result of the validation.
+     */
+    public static ValidationResult validate(String filePath, ResultCache cache) {
+        return validate(filePath, cache, false);
+    }
+
+    /**
+     * Validate a single file, and collect all of its errors if asked to.
+     * the cache holds only the first error of a file, so when all the errors are collected only the
+     * errors of the methods are taken from it.
+     * a file that is not in the cache is validated with the errors of its methods that did not change.
+     *
+     * @param filePath  the path of the file.
+     * @param cache     the cache of results, null to always scan the file.
+     * @param allErrors true to collect all the errors of the file, false to stop at the first one.
+     * @return the result of the validation.
+     */
+    public static ValidationResult validate(String filePath, ResultCache cache, boolean allErrors) {
+        if (cache == null) {
+            return scan(filePath, allErrors);
+        }
+        try {
+            checkSjavaFileName(filePath); // before the cache, which holds the results of .sjava files only
+        } catch (IOException e) {
+            return new ValidationResult(ValidationResult.GENERAL_ERROR, e.getMessage());
+        }
+        byte[] content;
+        try (InputStream input = new FileInputStream(filePath)) {
+            content = input.readAllBytes();
+        } catch (IOException e) {
+            return scan(filePath, allErrors); // reports the same error as a run without a cache
+        }
+        if (allErrors) {
+            return new IncrementalFile(filePath, true, new MethodResultCache(cache)).validate(content);
+        }
+        String key = cache.keyOf(content);
+        ValidationResult result = cache.lookup(key);
+        if (result == null) {
+            result = new IncrementalFile(filePath, false, new MethodResultCache(cache)).validate(content);
+            if (result.getStatus() != ValidationResult.GENERAL_ERROR) {
+                cache.store(key, result);
             }
-            String filePath = args[0];
+        }
+        return result;
+    }
+
+    /**
+     * Validate a file from a stream, such as the standard input, without a file on disk.
+     * the stream is decoded the same way as a file, and the result is the one of a file with the same
+     * content. the stream is closed at its end.
+     *
+     * @param input     the stream of the file.
+     * @param allErrors true to collect all the errors of the file, false to stop at the first one.
+     * @return the result of the validation.
+     */
+    public static ValidationResult validate(InputStream input, boolean allErrors) {
+        return validate(() -> SourceFile.read(input), allErrors);
+    }
+
+    /**
+     * Validate a file from a reader, without a file on disk.
+     * the reader is closed at its end.
+     *
+     * @param reader    the reader of the file.
+     * @param allErrors true to collect all the errors of the file, false to stop at the first one.
+     * @return the result of the validation.
+     */
+    public static ValidationResult validate(Reader reader, boolean allErrors) {
+        return validate(() -> SourceFile.read(reader), allErrors);
+    }
+
+    /*
+     * reads the lines of a file.
+     */
+    interface SourceReader {
+        SourceFile read() throws IOException;
+    }
+
+    private static ValidationResult validate(SourceReader sourceReader, boolean allErrors) {
+        return report(() -> {
+            SourceFile source = sourceReader.read();
+            Sjavac sjavacManager = new Sjavac(STANDARD_INPUT);
+            if (allErrors) {
+                return new ValidationResult(sjavacManager.runAllErrors(source));
+            }
+            sjavacManager.run(source);
+            return new ValidationResult(ValidationResult.PASSED, null);
+        });
+    }
+
+    /*
+     * validate a file from the disk.
+     */
+    private static ValidationResult scan(String filePath, boolean allErrors) {
+        return report(() -> {
             checkSjavaFileName(filePath);
 
             Sjavac sjavacManager = new Sjavac(filePath);
+            if (allErrors) {
+                return new ValidationResult(sjavacManager.runAllErrors());
+            }
             sjavacManager.run();
 
-            // if successful, print 0
-            System.out.println(PASSED_ALL_TESTS);
+            // if successful, return 0
+            return new ValidationResult(ValidationResult.PASSED, null);
+        });
+    }
 
+    /*
+     * a validation that reports its errors by throwing them.
+     */
+    interface Validation {
+        ValidationResult run() throws Exception;
+    }
 
+    /*
+     * turn the error of a validation into its result.
+     */
+    static ValidationResult report(Validation validation) {
+        try {
+            return validation.run();
         }
         catch (InvalidLineSyntaxException | InvalidNameException | InvalidValueException |
                InvalidVariableTypeException e) {
-            System.err.println(e.getMessage());
-            System.out.println(FOUND_ERRORS);
+            return foundError(e);
         }
         catch (SyntaxException e) {
-            System.err.println(e.getMessage());
-            System.out.println(FOUND_ERRORS);
+            return foundError(e);
         }
         catch (CompileException e) {
-            System.err.println(e.getMessage());
-            System.out.println(FOUND_ERRORS);
+            return foundError(e);
         }
         catch (FileNotFoundException e) {
-            System.err.println(FILE_NOT_FOUND_ERROR);
-            System.out.println(GENERAL_ERROR);
-
+            return new ValidationResult(ValidationResult.GENERAL_ERROR, FILE_NOT_FOUND_ERROR);
         }
         catch (IOException e) {
-            System.err.println(e.getMessage());
-            System.out.println(GENERAL_ERROR);
-
+            return new ValidationResult(ValidationResult.GENERAL_ERROR, e.getMessage());
         }
         catch (Exception e) {
-            System.err.println(AN_ERROR_OCCURRED);
-            System.out.println(GENERAL_ERROR);
+            return new ValidationResult(ValidationResult.GENERAL_ERROR, AN_ERROR_OCCURRED);
         }
+    }
 
+    private static ValidationResult foundError(CompileException error) {
+        if (error.getLineNumber() == 0) {
+            return new ValidationResult(ValidationResult.FOUND_ERRORS, error.getMessage());
+        }
+        return new ValidationResult(List.of(new Diagnostic(error.getLineNumber(), error.getColumn(),
+                error.getMessage())));
     }
 
-    private static void checkSjavaFileName(String filePath) throws IOException {
+    static void checkSjavaFileName(String filePath) throws IOException {
         if (!filePath.endsWith(FILE_FORMAT)) {
             throw new IOException(INVALID_FILE_NAME);
         }
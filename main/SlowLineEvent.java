@@ -0,0 +1,73 @@
+package ex5.main;
+
+import ex5.helpers.LineType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for a single line whose analysis took longer than the threshold.
+ * the threshold is a setting of the recording, such as ex5.SlowLine#threshold=100 us, 1 ms by default.
+ * @author noa.farag, noya.ashkenazi
+ */
+@Name("ex5.SlowLine")
+@Label("Slow Line")
+@Category({"S-Java", "Compiler"})
+@Description("A line whose analysis took longer than the threshold")
+@StackTrace(false)
+@Threshold("1 ms")
+class SlowLineEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(SlowLineEvent.class);
+
+    @Label("Phase")
+    @Description("The phase that analyzed the line, as in the Compile Phase event")
+    String phase;
+
+    @Label("Line Number")
+    int lineNumber;
+
+    @Label("Line Type")
+    @Description("The type of the line, null if the line is invalid")
+    String lineType;
+
+    @Label("Text")
+    String text;
+
+    /**
+     * Start timing the analysis of a line.
+     *
+     * @return the started event, null if the event is not recorded.
+     */
+    static SlowLineEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        SlowLineEvent event = new SlowLineEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the analysis of the line, and commit the event if it is recorded and took long enough.
+     *
+     * @param phase      the phase that analyzed the line.
+     * @param lineNumber the number of the line in the file.
+     * @param lineType   the type of the line, null if the line is invalid.
+     * @param text       the text of the line.
+     */
+    void finish(String phase, int lineNumber, LineType lineType, String text) {
+        end();
+        if (shouldCommit()) {
+            this.phase = phase;
+            this.lineNumber = lineNumber;
+            this.lineType = lineType == null ? null : lineType.name();
+            this.text = text;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package ex5.main;
+
+import ex5.helpers.CompileStats;
+import ex5.helpers.IdentifierInterner;
+import ex5.helpers.LineAnalyzer;
+import ex5.helpers.LineLexer;
+import ex5.helpers.LineType;
+import ex5.helpers.TokenStream;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static ex5.helpers.RegExConstants.*;
+
+/**
+ * The SourceFile class reads a source file once and keeps a table of its significant lines.
+ * empty lines and comments are dropped, every other line is trimmed and analyzed when it is read.
+ * the curly braces of the whole file are counted on the way, so all the scans can run over the table.
+ * the words of the lines that declare variables or methods are interned on the way as well, so every
+ * name that can be declared has an id before the scans start.
+ * a file is read as bytes, and an ASCII line is checked on its bytes: the line breaks are found, the
+ * empty lines and comments are skipped and the curly braces are counted without decoding it, and only
+ * a line that is kept is turned into a string, byte by byte, which decodes it the same way in every
+ * charset that extends ASCII. a line with bytes that are not ASCII is decoded with the charset of the
+ * platform first. with a charset that does not extend ASCII the file is decoded as a whole, the way a
+ * reader decodes it.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class SourceFile {
+    private static final int ASCII_LIMIT = 0x80;
+    private static final boolean IS_ASCII_CHARSET = isAsciiCharset(Charset.defaultCharset());
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final char QUOTE = '"';
+    private static final char VERTICAL_TAB = 0x0B;
+
+    private final List<SourceLine> lines;
+    private final int lineCount;
+    private final int curlyBraceBalance;
+    private final IdentifierInterner interner;
+
+    private SourceFile(List<SourceLine> lines, int lineCount, int curlyBraceBalance,
+                       IdentifierInterner interner) {
+        this.lines = lines;
+        this.lineCount = lineCount;
+        this.curlyBraceBalance = curlyBraceBalance;
+        this.interner = interner;
+    }
+
+    /**
+     * Read a source file.
+     *
+     * @param file the path of the file.
+     * @return the lines of the file.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public static SourceFile read(String file) throws IOException {
+        return read(file, new IdentifierInterner());
+    }
+
+    /**
+     * Read a source file, and intern its words into a given interner.
+     *
+     * @param file     the path of the file.
+     * @param interner the interner to add the words of the file to.
+     * @return the lines of the file.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public static SourceFile read(String file, IdentifierInterner interner) throws IOException {
+        if (!IS_ASCII_CHARSET) {
+            return read(new FileReader(file), file, interner);
+        }
+        // opened the way a FileReader opens it, so a missing file fails the same way
+        try (FileInputStream input = new FileInputStream(file)) {
+            if (input.getChannel().size() > Integer.MAX_VALUE) {
+                return read(new InputStreamReader(input, Charset.defaultCharset()), file, interner);
+            }
+            return read(input.readAllBytes(), file, interner);
+        }
+    }
+
+    /**
+     * Read a source file from its content, decoded the same way as a file on disk.
+     *
+     * @param content the bytes of the file.
+     * @return the lines of the file.
+     * @throws IOException if an error occurs while decoding the content.
+     */
+    public static SourceFile read(byte[] content) throws IOException {
+        return read(content, new IdentifierInterner());
+    }
+
+    /**
+     * Read a source file from its content, and intern its words into a given interner.
+     *
+     * @param content  the bytes of the file.
+     * @param interner the interner to add the words of the file to.
+     * @return the lines of the file.
+     * @throws IOException if an error occurs while decoding the content.
+     */
+    public static SourceFile read(byte[] content, IdentifierInterner interner) throws IOException {
+        if (!IS_ASCII_CHARSET) {
+            return read(new InputStreamReader(new ByteArrayInputStream(content), Charset.defaultCharset()),
+                    null, interner);
+        }
+        return read(content, null, interner);
+    }
+
+    /**
+     * Read a source file from a stream, decoded the same way as a file on disk.
+     * the stream is decoded line by line, without copying it into a byte array first, and it is closed at
+     * its end.
+     *
+     * @param input the stream of the file.
+     * @return the lines of the file.
+     * @throws IOException if an error occurs while reading the stream.
+     */
+    public static SourceFile read(InputStream input) throws IOException {
+        return read(new InputStreamReader(input, Charset.defaultCharset()));
+    }
+
+    /**
+     * Read a source file from a reader.
+     * the reader is read line by line and closed at its end.
+     *
+     * @param reader the reader of the file.
+     * @return the lines of the file.
+     * @throws IOException if an error occurs while reading.
+     */
+    public static SourceFile read(Reader reader) throws IOException {
+        return read(reader, null, new IdentifierInterner());
+    }
+
+    private static SourceFile read(Reader reader, String file, IdentifierInterner interner)
+            throws IOException {
+        List<SourceLine> lines = new ArrayList<>();
+        int curlyBraceBalance = 0;
+        int lineNumber = 0;
+        long wallStart = CompileStats.wallTime();
+        long cpuStart = CompileStats.cpuTime();
+        CompilePhaseEvent phaseEvent = CompileEvents.startPhase();
+        try (BufferedReader bufferedReader = new BufferedReader(reader)) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                lineNumber++;
+                curlyBraceBalance += addLine(lines, lineNumber, line, interner);
+            }
+        } finally {
+            CompileStats.addPhase(CompileStats.READ, wallStart, cpuStart);
+            CompileEvents.finishPhase(phaseEvent, CompilePhaseEvent.READ, file);
+        }
+        return new SourceFile(Collections.unmodifiableList(lines), lineNumber, curlyBraceBalance, interner);
+    }
+
+    /*
+     * the lines end where BufferedReader.readLine ends them, at a \n, a \r or a \r\n.
+     */
+    private static SourceFile read(byte[] content, String file, IdentifierInterner interner) {
+        List<SourceLine> lines = new ArrayList<>();
+        int curlyBraceBalance = 0;
+        int lineNumber = 0;
+        long wallStart = CompileStats.wallTime();
+        long cpuStart = CompileStats.cpuTime();
+        CompilePhaseEvent phaseEvent = CompileEvents.startPhase();
+        try {
+            AsciiLine asciiLine = new AsciiLine(content); // reused by every ASCII line
+            int start = 0;
+            while (start < content.length) {
+                int lineEnd = start;
+                boolean isAscii = true;
+                while (lineEnd < content.length && !isLineBreak(content[lineEnd])) {
+                    isAscii &= content[lineEnd] >= 0;
+                    lineEnd++;
+                }
+                CharSequence line = isAscii ? asciiLine.of(start, lineEnd) :
+                        new String(content, start, lineEnd - start, Charset.defaultCharset());
+                start = lineEnd + 1;
+                if (lineEnd < content.length && content[lineEnd] == CARRIAGE_RETURN && start < content.length &&
+                        content[start] == LINE_FEED) {
+                    start++;
+                }
+                lineNumber++;
+                curlyBraceBalance += addLine(lines, lineNumber, line, interner);
+            }
+        } finally {
+            CompileStats.addPhase(CompileStats.READ, wallStart, cpuStart);
+            CompileEvents.finishPhase(phaseEvent, CompilePhaseEvent.READ, file);
+        }
+        return new SourceFile(Collections.unmodifiableList(lines), lineNumber, curlyBraceBalance, interner);
+    }
+
+    private static boolean isLineBreak(byte character) {
+        return character == LINE_FEED || character == CARRIAGE_RETURN;
+    }
+
+    private static boolean isAsciiCharset(Charset charset) {
+        byte[] ascii = new byte[ASCII_LIMIT];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        return new String(ascii, charset).equals(new String(ascii, StandardCharsets.US_ASCII));
+    }
+
+    /*
+     * count the curly braces of a line, and add it to the table unless it is empty or a comment.
+     */
+    private static int addLine(List<SourceLine> lines, int lineNumber, CharSequence line,
+                               IdentifierInterner interner) {
+        long braceStart = CompileStats.wallTime();
+        int curlyBraces = countCurlyBraces(line);
+        CompileStats.addBraceCounting(braceStart);
+        if (isSkipped(line)) {
+            return curlyBraces;
+        }
+        // trim the line, removing the same characters that String.trim removes
+        int start = 0;
+        while (start < line.length() && line.charAt(start) <= ' ') {
+            start++;
+        }
+        int end = line.length();
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        SlowLineEvent lineEvent = CompileEvents.startLine();
+        SourceLine sourceLine = analyze(lineNumber, start + 1, line.subSequence(start, end).toString(), interner);
+        CompileEvents.finishLine(lineEvent, CompilePhaseEvent.READ, sourceLine);
+        lines.add(sourceLine);
+        return curlyBraces;
+    }
+
+    /*
+     * skip empty lines, comments and lines of white spaces only, the characters of \s.
+     */
+    private static boolean isSkipped(CharSequence line) {
+        if (line.length() == 0 || (line.length() >= EMPTY_LINE.length() && line.charAt(0) == EMPTY_LINE.charAt(0) &&
+                line.charAt(1) == EMPTY_LINE.charAt(1))) {
+            return true;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\n' && c != VERTICAL_TAB && c != '\f' && c != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SourceLine analyze(int lineNumber, int column, String line, IdentifierInterner interner) {
+        int scopeDelta = 0;
+        if (LineAnalyzer.enteredScope(line)) {
+            scopeDelta++;
+        }
+        if (LineAnalyzer.exitedScope(line)) {
+            scopeDelta--;
+        }
+        TokenStream tokens = LineLexer.lex(line);
+        LineType type = LineAnalyzer.classifyLine(tokens);
+        if (type == null) {
+            // the error is reported only if a scan reaches the line
+            return new SourceLine(lineNumber, column, line, null, LineAnalyzer.lineError(tokens), scopeDelta);
+        }
+        if (type == LineType.VARIABLE_DECLARATION || type == LineType.METHOD_DECLARATION) {
+            // every variable and parameter is declared by one of these lines
+            interner.internWords(tokens);
+        }
+        return new SourceLine(lineNumber, column, line, type, null, scopeDelta);
+    }
+
+    /*
+     * a string is from a quote to the next one, and a quote without a next one is not a string.
+     */
+    private static int countCurlyBraces(CharSequence line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == QUOTE) {
+                int closing = i + 1;
+                while (closing < line.length() && line.charAt(closing) != QUOTE) {
+                    closing++;
+                }
+                if (closing < line.length()) {
+                    i = closing;
+                }
+            } else if (c == LEFT_CURLY_BRACE.charAt(0)) {
+                count++;
+            } else if (c == RIGHT_CURLY_BRACE.charAt(0)) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * an ASCII line of the bytes of a file, read in place. a part of it is turned into a string only when
+     * it is asked for.
+     */
+    private static final class AsciiLine implements CharSequence {
+        private final byte[] content;
+        private int start;
+        private int length;
+
+        private AsciiLine(byte[] content) {
+            this.content = content;
+        }
+
+        private AsciiLine of(int start, int end) {
+            this.start = start;
+            this.length = end - start;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) content[start + index];
+        }
+
+        @Override
+        public String subSequence(int from, int to) {
+            return new String(content, start + from, to - from, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length);
+        }
+    }
+
+    /**
+     * Get the significant lines of the file.
+     *
+     * @return the lines, in the order of the file.
+     */
+    public List<SourceLine> getLines() {
+        return lines;
+    }
+
+    /**
+     * Get the number of lines of the file, including the empty lines and the comments.
+     *
+     * @return the number of the last line of the file.
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Get the interner that holds the words of the file.
+     *
+     * @return the interner.
+     */
+    public IdentifierInterner getInterner() {
+        return interner;
+    }
+
+    /**
+     * Check if every curly brace of the file is closed, strings are ignored.
+     *
+     * @return true if the curly braces are balanced, false otherwise.
+     */
+    public boolean isCurlyBraceBalanced() {
+        return curlyBraceBalance == 0;
+    }
+}
@@ -0,0 +1,98 @@
+package ex5.main;
+
+import ex5.helpers.InvalidLineSyntaxException;
+import ex5.helpers.LineType;
+
+/**
+ * A single significant line of a source file, as read by SourceFile.
+ * the line is kept trimmed, together with its column, its line type and the way it changes the scope
+ * depth.
+ * a line that could not be analyzed keeps the error, which is thrown when its type is requested.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class SourceLine {
+    private final int lineNumber;
+    private final int column;
+    private final String text;
+    private final LineType type;
+    private final String syntaxError;
+    private final int scopeDelta;
+
+    /**
+     * The constructor of the SourceLine class.
+     *
+     * @param lineNumber  the number of the line in the file, starting from 1.
+     * @param column      the column of the first character of the text, starting from 1.
+     * @param text        the trimmed text of the line.
+     * @param type        the type of the line, null if the line is invalid.
+     * @param syntaxError the error message of an invalid line, null if the line is valid.
+     * @param scopeDelta  1 if the line opens a scope, -1 if it closes one, 0 otherwise.
+     */
+    public SourceLine(int lineNumber, int column, String text, LineType type, String syntaxError,
+                      int scopeDelta) {
+        this.lineNumber = lineNumber;
+        this.column = column;
+        this.text = text;
+        this.type = type;
+        this.syntaxError = syntaxError;
+        this.scopeDelta = scopeDelta;
+    }
+
+    /**
+     * Get the number of the line in the file.
+     *
+     * @return the line number, starting from 1.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Get the column of the line, the place of its first character that is not a space.
+     *
+     * @return the column, starting from 1.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Get the trimmed text of the line.
+     *
+     * @return the text of the line.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the type of the line.
+     *
+     * @return the type of the line.
+     * @throws InvalidLineSyntaxException if the line is invalid.
+     */
+    public LineType getType() throws InvalidLineSyntaxException {
+        if (type == null) {
+            throw new InvalidLineSyntaxException(syntaxError);
+        }
+        return type;
+    }
+
+    /**
+     * Get the type of the line, without reporting the error of an invalid line.
+     *
+     * @return the type of the line, null if the line is invalid.
+     */
+    public LineType getTypeIfValid() {
+        return type;
+    }
+
+    /**
+     * Get the change of the scope depth caused by the line.
+     *
+     * @return 1 if the line opens a scope, -1 if it closes one, 0 otherwise.
+     */
+    public int getScopeDelta() {
+        return scopeDelta;
+    }
+}
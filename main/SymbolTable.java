@@ -0,0 +1,143 @@
+package ex5.main;
+
+import ex5.models.Variable;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The variables of one scope, keyed by the id the IdentifierInterner gave their names.
+ * an open addressing table of ints, so a lookup is a probe of an array and never hashes a string.
+ * most scopes declare nothing, so the arrays are only allocated on the first variable.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class SymbolTable {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int EMPTY = -1;
+
+    private int[] ids;
+    private Variable[] variables;
+    private int size;
+
+    /**
+     * Create an empty table.
+     */
+    public SymbolTable() {
+        this.size = 0;
+    }
+
+    /**
+     * Get the variable of an id.
+     *
+     * @param id the id of the name of the variable.
+     * @return the variable, null if there is none.
+     */
+    public Variable get(int id) {
+        if (ids == null) {
+            return null;
+        }
+        int mask = ids.length - 1;
+        for (int slot = mix(id) & mask; ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (ids[slot] == id) {
+                return variables[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if there is a variable for an id.
+     *
+     * @param id the id of the name of the variable.
+     * @return true if there is a variable, false otherwise.
+     */
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Set the variable of an id.
+     *
+     * @param id       the id of the name of the variable.
+     * @param variable the variable.
+     */
+    public void put(int id, Variable variable) {
+        if (ids == null) {
+            ids = newIds(INITIAL_CAPACITY);
+            variables = new Variable[INITIAL_CAPACITY];
+        }
+        int mask = ids.length - 1;
+        int slot = mix(id) & mask;
+        while (ids[slot] != EMPTY && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (ids[slot] == EMPTY) {
+            size++;
+        }
+        ids[slot] = id;
+        variables[slot] = variable;
+        if (size * 2 > ids.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Visit every variable of the table, in no particular order.
+     *
+     * @param action the action to run on every variable.
+     */
+    public void forEach(Consumer<Variable> action) {
+        if (ids == null) {
+            return;
+        }
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] != EMPTY) {
+                action.accept(variables[slot]);
+            }
+        }
+    }
+
+    /**
+     * Remove all the variables.
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(ids, EMPTY);
+            Arrays.fill(variables, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Get the number of variables.
+     *
+     * @return the number of variables.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        int[] oldIds = ids;
+        Variable[] oldVariables = variables;
+        ids = newIds(oldIds.length * 2);
+        variables = new Variable[oldIds.length * 2];
+        size = 0;
+        for (int slot = 0; slot < oldIds.length; slot++) {
+            if (oldIds[slot] != EMPTY) {
+                put(oldIds[slot], oldVariables[slot]);
+            }
+        }
+    }
+
+    private static int[] newIds(int capacity) {
+        int[] ids = new int[capacity];
+        Arrays.fill(ids, EMPTY);
+        return ids;
+    }
+
+    private static int mix(int id) {
+        int hash = id * 0x9E3779B9; // ids are dense, spread them over the table
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,117 @@
+package ex5.main;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of validating a single file.
+ * holds the status that the program prints (0, 1 or 2) and the error message, if there is one.
+ * the errors are held with their places in the file as well, every error when all of them were collected,
+ * otherwise the first one.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class ValidationResult {
+    private static final String RESULT_SEPARATOR = ": ";
+    private static final String POSITION_SEPARATOR = ":";
+
+    /**
+     * The status of a legal file.
+     */
+    public static final int PASSED = 0;
+    /**
+     * The status of an illegal file.
+     */
+    public static final int FOUND_ERRORS = 1;
+    /**
+     * The status of a file that could not be read.
+     */
+    public static final int GENERAL_ERROR = 2;
+
+    private final int status;
+    private final String message;
+    private final List<Diagnostic> diagnostics;
+
+    /**
+     * The constructor of the ValidationResult class.
+     *
+     * @param status  the status of the file, one of PASSED, FOUND_ERRORS and GENERAL_ERROR.
+     * @param message the error message, null if the file passed.
+     */
+    public ValidationResult(int status, String message) {
+        this.status = status;
+        this.message = message;
+        this.diagnostics = Collections.emptyList();
+    }
+
+    /**
+     * A constructor of the ValidationResult class for the errors of a file, with their places.
+     * the message is the message of the first error.
+     *
+     * @param diagnostics the errors of the file, empty if the file passed.
+     */
+    public ValidationResult(List<Diagnostic> diagnostics) {
+        this.status = diagnostics.isEmpty() ? PASSED : FOUND_ERRORS;
+        this.message = diagnostics.isEmpty() ? null : diagnostics.get(0).getMessage();
+        this.diagnostics = Collections.unmodifiableList(diagnostics);
+    }
+
+    /**
+     * Print the result: the error messages to one stream, then the status to the other.
+     * when many files are validated, every line starts with the path of its file.
+     *
+     * @param file      the path of the file, null to print the result by itself.
+     * @param allErrors true to print every error with its place, false to print only the message.
+     * @param out       the stream to print the status to.
+     * @param err       the stream to print the error messages to.
+     */
+    public void print(String file, boolean allErrors, PrintStream out, PrintStream err) {
+        String prefix = file == null ? "" : file + RESULT_SEPARATOR;
+        if (allErrors && !diagnostics.isEmpty()) {
+            for (Diagnostic diagnostic : diagnostics) {
+                err.println((file == null ? "" : file + POSITION_SEPARATOR) + diagnostic);
+            }
+        } else if (message != null) {
+            err.println(prefix + message);
+        }
+        out.println(prefix + status);
+    }
+
+    /**
+     * A copy of another result, for the results that add to it.
+     *
+     * @param other the result to copy.
+     */
+    protected ValidationResult(ValidationResult other) {
+        this.status = other.status;
+        this.message = other.message;
+        this.diagnostics = other.diagnostics;
+    }
+
+    /**
+     * Get the status of the file.
+     *
+     * @return the status, one of PASSED, FOUND_ERRORS and GENERAL_ERROR.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the error message.
+     *
+     * @return the error message, null if the file passed.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Get all the errors of the file.
+     *
+     * @return the errors, empty if the file passed or the place of its error is not known.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+}
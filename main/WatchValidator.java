@@ -0,0 +1,191 @@
+package ex5.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * The WatchValidator class validates files, then keeps running and validates them again when they change.
+ * the arguments are files and directories, the directories are watched with all the directories under
+ * them, and every .sjava file that is created or changed in them is validated.
+ * every file is an IncrementalFile, so a change to the bodies of the methods only checks these bodies.
+ * with a cache, the errors of the methods are kept in a MethodResultCache as well, so a new run of the
+ * watch does not check the methods that did not change since the last one.
+ * the results are printed the way the BatchValidator prints them, first for all the files, then for the
+ * files of every change, in the order of their paths.
+ * @author noa.farag, noya.ashkenazi
+ */
+public class WatchValidator {
+    private static final String FILE_FORMAT = ".sjava";
+    private static final String RESULT_SEPARATOR = ": ";
+    private static final String FILE_NOT_FOUND_ERROR = "File not found";
+    private static final long SETTLE_MILLIS = 10; // an editor saves a file in a few events
+
+    private final WatchService watchService;
+    private final ResultCache cache;
+    private final boolean allErrors;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Set<Path> watchedDirectories = new HashSet<>(); // all the .sjava files in them are watched
+    private final Set<String> watchedFiles = new HashSet<>(); // the files that were given by themselves
+    private final Map<String, IncrementalFile> files = new LinkedHashMap<>();
+
+    private WatchValidator(WatchService watchService, ResultCache cache, boolean allErrors) {
+        this.watchService = watchService;
+        this.cache = cache;
+        this.allErrors = allErrors;
+    }
+
+    /**
+     * Validate the files given as arguments, then validate them again on every change until the program
+     * is stopped.
+     *
+     * @param args      the files and directories to watch.
+     * @param cache     the cache to keep the errors of the methods in, null to keep them only in memory.
+     * @param allErrors true to collect all the errors of every file, false to stop at the first one.
+     * @param out       the stream to print the statuses to.
+     * @param err       the stream to print the error messages to.
+     * @return the status of the program, a general error if the files cannot be watched.
+     */
+    public static int runWatch(String[] args, ResultCache cache, boolean allErrors, PrintStream out,
+                               PrintStream err) {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            WatchValidator validator = new WatchValidator(watchService, cache, allErrors);
+            for (String arg : args) {
+                validator.watch(arg);
+            }
+            validator.validate(new TreeSet<>(validator.files.keySet()), out, err);
+            validator.watchChanges(out, err);
+        } catch (NoSuchFileException e) {
+            err.println(FILE_NOT_FOUND_ERROR + RESULT_SEPARATOR + e.getFile());
+        } catch (IOException e) {
+            err.println(e.getMessage());
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            return ValidationResult.PASSED; // stopped
+        }
+        out.println(ValidationResult.GENERAL_ERROR);
+        return ValidationResult.GENERAL_ERROR;
+    }
+
+    private void watch(String arg) throws IOException {
+        Path path = Path.of(arg);
+        if (new File(arg).isDirectory()) {
+            registerTree(path);
+            return;
+        }
+        if (!Files.exists(path)) {
+            throw new NoSuchFileException(arg);
+        }
+        Path parent = path.getParent() == null ? Path.of("") : path.getParent();
+        register(parent);
+        watchedFiles.add(arg);
+        files.computeIfAbsent(arg, this::newFile);
+    }
+
+    /*
+     * watch a directory and all the directories under it, and add the .sjava files in them.
+     * returns the paths of these files.
+     */
+    private List<String> registerTree(Path root) throws IOException {
+        List<String> found = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isDirectory(path)) {
+                    register(path);
+                    watchedDirectories.add(path);
+                } else if (Files.isRegularFile(path) && path.toString().endsWith(FILE_FORMAT)) {
+                    files.computeIfAbsent(path.toString(), this::newFile);
+                    found.add(path.toString());
+                }
+            }
+        }
+        return found;
+    }
+
+    private IncrementalFile newFile(String file) {
+        return new IncrementalFile(file, allErrors, cache == null ? null : new MethodResultCache(cache));
+    }
+
+    private void register(Path directory) throws IOException {
+        // an empty path is the working directory, which cannot be registered by itself
+        Path watched = directory.toString().isEmpty() ? Path.of(".") : directory;
+        directories.put(watched.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+    }
+
+    /*
+     * wait for changes, and validate the files of every change together.
+     */
+    private void watchChanges(PrintStream out, PrintStream err) throws IOException, InterruptedException {
+        while (true) {
+            Set<String> changed = new TreeSet<>();
+            WatchKey key = watchService.take();
+            while (key != null) {
+                collectChanges(key, changed);
+                key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            validate(changed, out, err);
+        }
+    }
+
+    private void collectChanges(WatchKey key, Set<String> changed) throws IOException {
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                changed.addAll(files.keySet()); // events were lost, every file may have changed
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            String file = path.toString();
+            if (event.kind() == ENTRY_CREATE && watchedDirectories.contains(directory) &&
+                    Files.isDirectory(path)) {
+                changed.addAll(registerTree(path)); // a directory that was moved in comes with its files
+                continue;
+            }
+            if (watchedFiles.contains(file) ||
+                    (watchedDirectories.contains(directory) && file.endsWith(FILE_FORMAT))) {
+                changed.add(file);
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key); // the directory was deleted
+        }
+    }
+
+    /*
+     * validate the files and print their results, a file that was deleted from a watched directory is
+     * printed once and then forgotten.
+     */
+    private void validate(Set<String> changed, PrintStream out, PrintStream err) {
+        for (String file : changed) {
+            IncrementalFile incrementalFile = files.computeIfAbsent(file, this::newFile);
+            incrementalFile.validate().print(file, allErrors, out, err);
+            if (!watchedFiles.contains(file) && !new File(file).exists()) {
+                files.remove(file);
+            }
+        }
+        out.flush();
+        err.flush();
+    }
+}
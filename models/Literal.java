@@ -0,0 +1,184 @@
+package ex5.models;
+
+/**
+ * A literal value, its kind and its text, found once from the text.
+ * the kind of the literal decides which variable types accept it, so a value that flows from one
+ * variable to another is checked by its kind and never matched against the value regexes again.
+ * @auther noa.farag, noya.ashkenazi
+ */
+public final class Literal {
+    private static final String TRUE = "true";
+    private static final String FALSE = "false";
+    private static final char STRING_QUOTE = '"';
+    private static final char CHAR_QUOTE = '\'';
+    private static final char PLUS = '+';
+    private static final char MINUS = '-';
+    private static final char DOT = '.';
+    private static final String STRING_FORBIDDEN_CHARS = ",'\"\\";
+
+    private static final Literal INVALID = new Literal(LiteralKind.INVALID, null);
+    private static final Literal TRUE_LITERAL = new Literal(LiteralKind.BOOLEAN, TRUE);
+    private static final Literal FALSE_LITERAL = new Literal(LiteralKind.BOOLEAN, FALSE);
+
+    /**
+     * The default value of int, double and boolean variables.
+     */
+    public static final Literal DEFAULT_NUMBER = parse("0");
+    /**
+     * The default value of char variables.
+     */
+    public static final Literal DEFAULT_CHAR = parse("'\u0000'");
+    /**
+     * The default value of String variables.
+     */
+    public static final Literal DEFAULT_STRING = parse("\"\"");
+
+    private final LiteralKind kind;
+    private final String text;
+
+    private Literal(LiteralKind kind, String text) {
+        this.kind = kind;
+        this.text = text;
+    }
+
+    /**
+     * Parse the text of a value.
+     * the kinds match the value regexes of RegExConstants exactly.
+     *
+     * @param text the text of the value, without spaces around it.
+     * @return the literal, of kind INVALID if the text is not a literal.
+     */
+    public static Literal parse(String text) {
+        LiteralKind kind = kindOf(text, 0, text.length());
+        switch (kind) {
+            case INVALID -> {
+                return INVALID;
+            }
+            case BOOLEAN -> {
+                return text.equals(TRUE) ? TRUE_LITERAL : FALSE_LITERAL;
+            }
+        }
+        return new Literal(kind, text);
+    }
+
+    /**
+     * Find the kind of the text of a value, in place, without creating the literal.
+     *
+     * @param text  the text that holds the value.
+     * @param start the index of the first character of the value.
+     * @param end   the index after the last character of the value, without spaces around it.
+     * @return the kind of the value, INVALID if it is not a literal.
+     */
+    public static LiteralKind kindOf(String text, int start, int end) {
+        if (start >= end) {
+            return LiteralKind.INVALID;
+        }
+        char first = text.charAt(start);
+        if (first == STRING_QUOTE) {
+            return stringKind(text, start, end);
+        }
+        if (first == CHAR_QUOTE) {
+            return charKind(text, start, end);
+        }
+        if (isWord(text, start, end, TRUE) || isWord(text, start, end, FALSE)) {
+            return LiteralKind.BOOLEAN;
+        }
+        return numberKind(text, start, end);
+    }
+
+    private static boolean isWord(String text, int start, int end, String word) {
+        return end - start == word.length() && text.startsWith(word, start);
+    }
+
+    // "[^,'"\\]*"
+    private static LiteralKind stringKind(String text, int start, int end) {
+        int last = end - 1;
+        if (last < start + 1 || text.charAt(last) != STRING_QUOTE) {
+            return LiteralKind.INVALID;
+        }
+        for (int i = start + 1; i < last; i++) {
+            if (STRING_FORBIDDEN_CHARS.indexOf(text.charAt(i)) >= 0) {
+                return LiteralKind.INVALID;
+            }
+        }
+        return LiteralKind.STRING;
+    }
+
+    // '.' where the dot is one code point that does not end a line
+    private static LiteralKind charKind(String text, int start, int end) {
+        int length = end - start;
+        if (length < 3 || text.charAt(end - 1) != CHAR_QUOTE) {
+            return LiteralKind.INVALID;
+        }
+        int codePoint = text.codePointAt(start + 1);
+        if (Character.charCount(codePoint) != length - 2 || isLineTerminator(codePoint)) {
+            return LiteralKind.INVALID;
+        }
+        return LiteralKind.CHAR;
+    }
+
+    // [+-]?\d+ is an INTEGER, [+-]?(\.\d+|\d+\.|\d+\.\d+) is a REAL
+    private static LiteralKind numberKind(String text, int start, int end) {
+        int i = start;
+        if (text.charAt(i) == PLUS || text.charAt(i) == MINUS) {
+            i++;
+        }
+        int integerDigits = countDigits(text, i, end);
+        i += integerDigits;
+        if (i == end) {
+            return integerDigits > 0 ? LiteralKind.INTEGER : LiteralKind.INVALID;
+        }
+        if (text.charAt(i) != DOT) {
+            return LiteralKind.INVALID;
+        }
+        i++;
+        int fractionDigits = countDigits(text, i, end);
+        i += fractionDigits;
+        if (i != end || integerDigits + fractionDigits == 0) {
+            return LiteralKind.INVALID;
+        }
+        return LiteralKind.REAL;
+    }
+
+    private static int countDigits(String text, int start, int end) {
+        int i = start;
+        while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i++;
+        }
+        return i - start;
+    }
+
+    private static boolean isLineTerminator(int codePoint) {
+        return codePoint == '\n' || codePoint == '\r' || codePoint == '\u0085' ||
+                codePoint == '\u2028' || codePoint == '\u2029';
+    }
+
+    /**
+     * Get a literal from its kind and its text, such as a literal that was read back from a snapshot.
+     *
+     * @param kind the kind of the literal.
+     * @param text the text of the literal.
+     * @return the literal.
+     */
+    public static Literal of(LiteralKind kind, String text) {
+        return new Literal(kind, text);
+    }
+
+    /**
+     * Get the kind of the literal.
+     *
+     * @return the kind.
+     */
+    public LiteralKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the text of the literal, the way it is written in the file.
+     *
+     * @return the text, null if the literal is not valid.
+     */
+    public String getText() {
+        return text;
+    }
+}
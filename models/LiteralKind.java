@@ -0,0 +1,32 @@
+package ex5.models;
+
+/**
+ * An enum class for the kinds of literal values.
+ * @auther noa.farag, noya.ashkenazi
+ */
+public enum LiteralKind {
+    /**
+     * A whole number with an optional sign, valid for int, double and boolean.
+     */
+    INTEGER,
+    /**
+     * A number with a dot, valid for double and boolean.
+     */
+    REAL,
+    /**
+     * true or false.
+     */
+    BOOLEAN,
+    /**
+     * A single char between single quotes.
+     */
+    CHAR,
+    /**
+     * Text between double quotes.
+     */
+    STRING,
+    /**
+     * A value that is not a literal of any type.
+     */
+    INVALID
+}
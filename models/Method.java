@@ -1,10 +1,9 @@
 package ex5.models;
 
 import ex5.helpers.RegexHelper;
+import ex5.helpers.RegexPattern;
 
 import java.util.*;
-import static ex5.helpers.RegExConstants.*;
-import java.util.function.Function;
 
 /**
  * A class for methods.
@@ -26,12 +25,10 @@ public class Method {
     private static final String TRUE = "true";
     private static final String MEMTHOD_NAME_EXCEPTION = "Invalid method name";
     private static final String METHOD_NAME_IS_KEYWORD = "Invalid method name, name is a keyword";
-    private static final String INVALID_NUMBER_OF_PARAMETERS = "Invalid number of parameters";
-    private static final String INVALID_PARAMETER_VALUE = "Invalid parameter value";
-    private static final String PARAMETER_IS_NOT_INITIALIZED = "Parameter is not initialized";
 
     private String name;
-    private List<Variable> parameters;
+    private final List<Variable> parameters;
+    private final MethodSignature signature;
     private final static Set<String> savedVarWords = new HashSet<>(Set.of(INT, STRING, BOOLEAN, CHAR,
             DOUBLE));
     private final static Set<String> savedKeyWords = new HashSet<>(Set.of(IF,
@@ -46,10 +43,26 @@ public class Method {
     public Method(String name, Variable[] parameters) throws InvalidNameException {
         this.name = name;
         checkMethodName();
-        this.parameters = new ArrayList<>();
-        if (parameters != null) {
-            this.parameters.addAll(Arrays.asList(parameters));
+        if (parameters == null) {
+            parameters = new Variable[0];
         }
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(parameters)));
+        this.signature = new MethodSignature(parameters);
+    }
+
+    /**
+     * A copy constructor for the Method class.
+     * the parameters are copied too, since entering a method initializes its parameters.
+     * @param other the method to copy.
+     */
+    public Method(Method other) {
+        this.name = other.name;
+        List<Variable> parameters = new ArrayList<>(other.parameters.size());
+        for (Variable parameter : other.parameters) {
+            parameters.add(new Variable(parameter));
+        }
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.signature = other.signature;
     }
 
 
@@ -58,14 +71,13 @@ public class Method {
      * @return true if the method name is valid, false otherwise.
      */
     public boolean checkMethodName() throws InvalidNameException {
-        String methodNameRegex = METHOD_NAME_REGEX;
         if (this.name.length() <= 0) {
             throw new InvalidNameException(MEMTHOD_NAME_EXCEPTION);
         }
         if (savedVarWords.contains(this.name) || savedKeyWords.contains(this.name)) {
             throw new InvalidNameException(METHOD_NAME_IS_KEYWORD);
         }
-        if (RegexHelper.regexMatches(methodNameRegex, this.name)) {
+        if (RegexHelper.regexMatches(RegexPattern.METHOD_NAME, this.name)) {
             return true;
         }
         throw new InvalidNameException(MEMTHOD_NAME_EXCEPTION);
@@ -81,39 +93,18 @@ public class Method {
     }
 
     /**
-     * A method to add a parameter to the method.
-     * @Varivable[] all the method parameters
+     * A method that returns the parameters of the method, without copying them.
+     * @return the parameters, which cannot be changed.
      */
-    public Variable[] getParameters() {
-        return this.parameters.toArray(new Variable[0]);
+    public List<Variable> getParameters() {
+        return this.parameters;
     }
 
-
-
     /**
-     * A method to add a parameter to the method.
+     * A method that returns the signature of the method, to check the arguments of a call against.
+     * @return the signature.
      */
-    public void assertArguments(String[] arguments, Function<String, Variable> lookupVariable)
-            throws InvalidValueException {
-        if (arguments.length != this.parameters.size()) {
-            throw new InvalidValueException(INVALID_NUMBER_OF_PARAMETERS);
-        }
-        for (int i = 0; i < arguments.length; i++) {
-            if (arguments[i] == null || parameters.get(i) == null) {
-                throw new InvalidValueException(INVALID_PARAMETER_VALUE);
-            }
-            if (lookupVariable != null) {
-                Variable variable = lookupVariable.apply(arguments[i]);
-                if (variable != null) {
-                    if (!variable.getIsInitialized()) {
-                        throw new InvalidValueException(PARAMETER_IS_NOT_INITIALIZED);
-                    }
-                    arguments[i] = variable.getValue();
-                }
-            }
-            if (!this.parameters.get(i).isValueValid(arguments[i])) {
-                throw new InvalidValueException(INVALID_PARAMETER_VALUE);
-            }
-        }
+    public MethodSignature getSignature() {
+        return this.signature;
     }
-}
\ No newline at end of file
+}
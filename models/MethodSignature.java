@@ -0,0 +1,61 @@
+package ex5.models;
+
+/**
+ * The signature of a method, the types and the finality of its parameters.
+ * the signature is immutable, so a single signature is shared by every call of the method, on every
+ * thread, and the arguments of a call are checked against it without creating anything.
+ * @auther noa.farag, noya.ashkenazi
+ */
+public final class MethodSignature {
+    private final VariableType[] types;
+    private final boolean[] finals;
+
+    /**
+     * A constructor for the MethodSignature class.
+     * @param parameters the parameters of the method.
+     */
+    public MethodSignature(Variable[] parameters) {
+        this.types = new VariableType[parameters.length];
+        this.finals = new boolean[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            this.types[i] = parameters[i].getType();
+            this.finals[i] = parameters[i].isFinal();
+        }
+    }
+
+    /**
+     * A method that returns the number of parameters.
+     * @return the number of parameters.
+     */
+    public int getParameterCount() {
+        return types.length;
+    }
+
+    /**
+     * A method that returns the type of a parameter.
+     * @param index the index of the parameter.
+     * @return the type of the parameter.
+     */
+    public VariableType getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * A method that checks if a parameter is final.
+     * @param index the index of the parameter.
+     * @return true if the parameter is final, false otherwise.
+     */
+    public boolean isFinal(int index) {
+        return finals[index];
+    }
+
+    /**
+     * Check if a parameter accepts an argument of a kind.
+     * @param index the index of the parameter.
+     * @param kind  the kind of the value of the argument.
+     * @return null if the argument is valid, the error message of the type of the parameter otherwise.
+     */
+    public String argumentError(int index, LiteralKind kind) {
+        return Variable.valueError(types[index], kind);
+    }
+}
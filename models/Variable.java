@@ -1,12 +1,13 @@
 package ex5.models;
 
+import ex5.helpers.CompileStats;
 import ex5.helpers.RegexHelper;
+import ex5.helpers.RegexPattern;
 
 
 import java.util.HashSet;
 import java.util.Set;
 
-import static ex5.helpers.RegExConstants.*;
 
 
 /**
@@ -15,7 +16,6 @@ import static ex5.helpers.RegExConstants.*;
  * @auther noa.farag, noya.ashkenazi
  */
 public class Variable {
-    private static final String DEFAULT_INT_TYPE = "0";
     private static final String INT = "int";
     private static final String STRING = "String";
     private static final String BOOLEAN = "boolean";
@@ -38,15 +38,13 @@ public class Variable {
     private static final String INVALID_CHAR_EXCEPTION = "Invalid char value";
     private static final String INVALID_DOUBLE_EXCEPTION = "Invalid double value";
     private static final String INVALID_INT_VALUE_EXCEPTION = "Invalid int value";
-    private static final String DEFAULT_CHAR_TYPE = "'\u0000'";
-    private static final String DEFAULT_STRING_TYPE = "\"\"";
 
 
     private final String name;
     private VariableType type;
     private boolean isInitialized;
     private final boolean isFinal;
-    private String value;
+    private Literal value;
     private final static Set<String> savedVarWords = new HashSet<>(Set.of(INT, STRING, BOOLEAN, CHAR,
             DOUBLE));
     private final static Set<String> savedKeyWords = new HashSet<>(Set.of(IF,
@@ -60,6 +58,7 @@ public class Variable {
      */
     public Variable(String name, String type, boolean isFinal) throws InvalidNameException,
             InvalidVariableTypeException {
+        CompileStats.countVariable();
         this.name = name;
         this.isNameValid();
         fillType(type);
@@ -67,10 +66,28 @@ public class Variable {
         this.isFinal = isFinal;
     }
 
+    /**
+     * A constructor for a variable that was already checked, such as one read back from a snapshot.
+     * @param name the name of the variable.
+     * @param type the type of the variable.
+     * @param isFinal true if the variable is final.
+     * @param isInitialized true if the variable is initialized.
+     * @param value the value of the variable, null if it has none.
+     */
+    public Variable(String name, VariableType type, boolean isFinal, boolean isInitialized, Literal value) {
+        CompileStats.countVariable();
+        this.name = name;
+        this.type = type;
+        this.isFinal = isFinal;
+        this.isInitialized = isInitialized;
+        this.value = value;
+    }
+
     /**
      * A constructor for the Variable class if the variable is initialized.
      */
     public Variable(Variable other) {
+        CompileStats.countVariable();
         this.name = other.name;
         this.type = other.type;
         this.isInitialized = other.isInitialized;
@@ -106,8 +123,8 @@ public class Variable {
         if (savedVarWords.contains(this.name) || savedKeyWords.contains(this.name)) {
             throw new InvalidNameException(PARAMETER_NAME_IS_KEYWORD);
         }
-        if (RegexHelper.regexMatches(VARIABLE_NAME_REGEX, this.name) ||
-                RegexHelper.regexMatches(VARIABLE_NAME_REGEX__, this.name)) {
+        if (RegexHelper.regexMatches(RegexPattern.VARIABLE_NAME, this.name) ||
+                RegexHelper.regexMatches(RegexPattern.VARIABLE_NAME__, this.name)) {
             return true;
         }
         throw new InvalidNameException(INVALID_PARAMETER_NAME); //name doesn't match the regex
@@ -119,6 +136,15 @@ public class Variable {
      * @return the name of the variable.
      */
     public boolean addValue(String value) throws InvalidValueException {
+        return addValue(Literal.parse(value));
+    }
+
+
+    /**
+     * Add a value that was already parsed, such as the value of another variable.
+     * @return true if the value was added.
+     */
+    public boolean addValue(Literal value) throws InvalidValueException {
         if(isValueValid(value)) {
             this.value = value;
             this.isInitialized = true;
@@ -132,13 +158,18 @@ public class Variable {
      * A method that returns the name of the variable.
      */
     public void changeValue(String newValue) throws FinalVariableException, InvalidValueException {
+        changeValue(Literal.parse(newValue));
+    }
+
+
+    /**
+     * Change the value to a value that was already parsed.
+     */
+    public void changeValue(Literal newValue) throws FinalVariableException, InvalidValueException {
         if (this.isFinal) {
             throw new FinalVariableException(FINAL_VAVRIABLE_EXCEPTION);
         }
-        if (!this.isInitialized) {
-            addValue(newValue);
-        }
-        String prevVal = this.value;
+        Literal prevVal = this.value;
         if (!addValue(newValue)) {
             this.value = prevVal;
             throw new InvalidValueException(INVALID_VALUE_ASSIGNMENT);
@@ -151,73 +182,67 @@ public class Variable {
      * @return the name of the variable.
      */
     public boolean isValueValid(String value) throws  InvalidValueException {
-        switch (this.type) {
-            case INT -> {
-                return intValid(value);
-            }
-            case DOUBLE -> {
-                return doubleValid(value);
-            }
-            case CHAR -> {
-                return charValid(value);
-            }
-            case STRING -> {
-                return stringValid(value);
-            }
-            case BOOLEAN -> {
-                return booleanValid(value);
-            }
-        }
-        return false;
+        return isValueValid(Literal.parse(value));
     }
 
 
-    private boolean booleanValid(String value) throws  InvalidValueException {
-        if (RegexHelper.regexMatches(TRUE_FALSE_REGEX, value) ||
-                RegexHelper.regexMatches(DOUBLE_DOT_IN_BEGINNING_REGEX, value) ||
-                RegexHelper.regexMatches(DOUBLE_DOT_IN_MIDDLE_REGEX, value) ||
-                RegexHelper.regexMatches(DOUBLE_DOT_IN_END_REGEX, value)) {
-            return true;
+    /**
+     * Check a value that was already parsed, by its kind.
+     * @return true if the value is valid, otherwise an exception is thrown.
+     */
+    public boolean isValueValid(Literal value) throws  InvalidValueException {
+        String error = checkValue(value);
+        if (error != null) {
+            throw new InvalidValueException(error);
         }
-        throw new InvalidValueException(INVALIS_BOLEAN_VALUE_EXCEPTION);
+        return true;
     }
 
 
-    private boolean stringValid(String value) throws InvalidValueException {
-        if (RegexHelper.regexMatches(STRING_REGEX, value)) {
+    /**
+     * Check a value without throwing.
+     * @return null if the value is valid, the error message otherwise.
+     */
+    public String checkValue(Literal value) {
+        if (this.type == VariableType.STRING) {
             this.isInitialized = false;
-            return true;
-        }
-        this.isInitialized = false;
-        throw new InvalidValueException(STRING_VALUR_EXCEPTION);
-    }
-
-
-    private boolean charValid(String value) throws InvalidValueException{
-        if (RegexHelper.regexMatches(CHAR_REGEX, value)) {
-            return true;
         }
-        throw new InvalidValueException(INVALID_CHAR_EXCEPTION);
+        return valueError(this.type, value);
     }
 
 
-    private boolean doubleValid(String value) throws InvalidValueException {
-        if (RegexHelper.regexMatches(DOUBLE_DOT_IN_BEGINNING_REGEX, value) ||
-                RegexHelper.regexMatches(DOUBLE_DOT_IN_MIDDLE_REGEX, value) ||
-                RegexHelper.regexMatches(DOUBLE_DOT_IN_END_REGEX, value)) {
-            return true;
-        }
-        throw new InvalidValueException(INVALID_DOUBLE_EXCEPTION);
+    /**
+     * Check if a type accepts a value, by the kind of the value.
+     * @return null if the value is valid, the error message of the type otherwise.
+     */
+    public static String valueError(VariableType type, Literal value) {
+        return valueError(type, value.getKind());
     }
 
-
-    private boolean intValid(String value) throws InvalidValueException {
-        if (RegexHelper.regexMatches(INT_REGEX, value) ||
-                RegexHelper.regexMatches(POSITIVE_INT_REGEX, value) ||
-                RegexHelper.regexMatches(NEGATIVE_INT_REGEX, value)) {
-            return true;
+    /**
+     * Check if a type accepts a value of a kind.
+     * @return null if the kind is valid, the error message of the type otherwise.
+     */
+    public static String valueError(VariableType type, LiteralKind kind) {
+        boolean isNumber = kind == LiteralKind.INTEGER || kind == LiteralKind.REAL;
+        switch (type) {
+            case INT -> {
+                return kind == LiteralKind.INTEGER ? null : INVALID_INT_VALUE_EXCEPTION;
+            }
+            case DOUBLE -> {
+                return isNumber ? null : INVALID_DOUBLE_EXCEPTION;
+            }
+            case CHAR -> {
+                return kind == LiteralKind.CHAR ? null : INVALID_CHAR_EXCEPTION;
+            }
+            case STRING -> {
+                return kind == LiteralKind.STRING ? null : STRING_VALUR_EXCEPTION;
+            }
+            case BOOLEAN -> {
+                return kind == LiteralKind.BOOLEAN || isNumber ? null : INVALIS_BOLEAN_VALUE_EXCEPTION;
+            }
         }
-        throw new InvalidValueException(INVALID_INT_VALUE_EXCEPTION);
+        return null;
     }
 
     /**
@@ -256,7 +281,7 @@ public class Variable {
      * A method that returns the name of the variable.
      * @return the name of the variable.
      */
-    public String getValue() {
+    public Literal getValue() {
         return this.value;
     }
 
@@ -274,13 +299,13 @@ public class Variable {
     public void addDefaultValue() {
         switch (this.type) {
             case INT, DOUBLE, BOOLEAN -> {
-                this.value = DEFAULT_INT_TYPE;
+                this.value = Literal.DEFAULT_NUMBER;
             }
             case CHAR -> {
-                this.value = DEFAULT_CHAR_TYPE;
+                this.value = Literal.DEFAULT_CHAR;
             }
             case STRING -> {
-                this.value = DEFAULT_STRING_TYPE;
+                this.value = Literal.DEFAULT_STRING;
             }
         }
     }